@@ -0,0 +1,114 @@
+
+package os;
+
+import os.job.Burst;
+import os.job.Job;
+import os.job.ListJobSource;
+import os.metrics.Metrics;
+import os.policy.SchedulingPolicy;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * Allocation-rate regression gate: runs a few long jobs through every
+ * scheduling policy in both loop modes and fails unless the steady-state
+ * tick loop allocates nothing. Allocation is read from the JVM's per-thread
+ * counter; the best of several rounds is taken, so a one-off allocation by
+ * the JIT recompiling a method does not fail the gate.
+ *
+ * @author mnprtpsingh
+ */
+public class AllocationGate {
+    private static final String[] POLICIES = { "srtf", "fcfs", "rr", "mlfq", "cfs" };
+    private static final int JOBS = 8;
+    private static final int BURSTS = 40_001;
+    private static final int DELTA = 3;
+    private static final int WARMUP_STEPS = 20_000;
+    private static final int MEASUREMENT_STEPS = 10_000;
+    private static final int ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static LinkedList<Job> createWorkload() {
+        Random random = new Random(JOBS);
+        LinkedList<Job> jobs = new LinkedList<>();
+        for (int i = 0; i < JOBS; i++) {
+            ArrayList<Burst> bursts = new ArrayList<>(BURSTS);
+            for (int j = 0; j < BURSTS; j++) {
+                if (j % 2 == 0) bursts.add(MultiprogrammingOS.createCPUBurst(random, j == 0 ? 40 : j % 4 == 2 ? DELTA : -DELTA));
+                else bursts.add(MultiprogrammingOS.createIOBurst(random));
+            }
+            jobs.add(new Job("Program " + i, bursts));
+        }
+        return jobs;
+    }
+
+    private static boolean step(ComputerSystem system, boolean eventDriven, int steps) {
+        for (int i = 0; i < steps; i++) {
+            if (!(eventDriven ? system.runToNextEvent() : system.run())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the fewest bytes allocated per tick over the measurement
+     * rounds, or -1 if the workload ran out before the end
+     */
+    private static double measure(String policy, int cores, boolean metrics, boolean eventDriven) {
+        ComputerSystem system = new ComputerSystem(1024, 320, cores);
+        system.setSchedulingPolicy(SchedulingPolicy.create(policy, 20), SchedulingPolicy.create(policy, 20));
+        if (metrics) system.setMetrics(new Metrics(10));
+        MultiprogrammingOS.start(system, new ListJobSource(createWorkload()));
+        if (!step(system, eventDriven, WARMUP_STEPS)) return -1;
+
+        long thread = Thread.currentThread().getId();
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            int clock = system.getClock();
+            long before = THREADS.getThreadAllocatedBytes(thread);
+            if (!step(system, eventDriven, MEASUREMENT_STEPS)) return -1;
+            long bytes = THREADS.getThreadAllocatedBytes(thread) - before;
+            best = Math.min(best, (double) bytes / (system.getClock() - clock));
+        }
+        return best;
+    }
+
+    private static boolean check(String policy, int cores, boolean metrics, boolean eventDriven) {
+        String name = "allocation." + policy + "." + (eventDriven ? "eventDriven" : "tick")
+                + (metrics ? ".metrics" : "") + (cores > 1 ? ".cores" + cores : "");
+        double bytes = measure(policy, cores, metrics, eventDriven);
+        if (bytes < 0) {
+            System.out.println(String.format("%-44s workload exhausted", name));
+            return false;
+        }
+        boolean pass = bytes == 0;
+        System.out.println(String.format("%-44s %10.4f bytes/tick%s", name, bytes, pass ? "" : " ALLOCATES"));
+        return pass;
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation counters are not supported by this JVM");
+            System.exit(1);
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        int failures = 0;
+        for (String policy : POLICIES) {
+            if (!check(policy, 1, false, false)) failures++;
+            if (!check(policy, 1, false, true)) failures++;
+        }
+        if (!check("srtf", 4, true, false)) failures++;
+        if (!check("srtf", 4, true, true)) failures++;
+        if (failures > 0) {
+            System.out.println(Integer.toString(failures) + " configuration(s) allocate in steady state");
+            System.exit(1);
+        }
+    }
+}
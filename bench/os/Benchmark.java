@@ -0,0 +1,30 @@
+
+package os;
+
+/**
+ * One named measurement; run() returns the operations it performed. A
+ * benchmark may name a reference benchmark whose score it must stay close
+ * to in the same run.
+ *
+ * @author mnprtpsingh
+ */
+abstract class Benchmark {
+    final String name;
+    final String unit;
+    final String reference;
+
+    Benchmark(String name, String unit) {
+        this(name, unit, null);
+    }
+
+    Benchmark(String name, String unit, String reference) {
+        this.name = name;
+        this.unit = unit;
+        this.reference = reference;
+    }
+
+    void setup() {
+    }
+
+    abstract long run();
+}
@@ -0,0 +1,146 @@
+
+package os;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Minimal benchmark harness: each benchmark is warmed up, then measured
+ * over several timed iterations, and its throughput is compared against
+ * the stored baseline and, if it names one, against a reference benchmark
+ * measured earlier in the same run.
+ *
+ * @author mnprtpsingh
+ */
+public class BenchmarkRunner {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_TIME = 500_000_000L;
+    private static final double REGRESSION_THRESHOLD = 0.10;
+    private static final double OVERHEAD_TOLERANCE = 0.10;
+
+    public static volatile long sink;
+
+    private final ArrayList<Benchmark> benchmarks;
+    private final Properties baseline;
+    private final Properties results;
+    private final Map<String, Summary> summaries;
+
+    public BenchmarkRunner(Properties baseline) {
+        this.benchmarks = new ArrayList<>();
+        this.baseline = baseline;
+        this.results = new Properties();
+        this.summaries = new TreeMap<>();
+    }
+
+    public void add(Benchmark benchmark) {
+        this.benchmarks.add(benchmark);
+    }
+
+    public static void consume(long value) {
+        sink += value;
+    }
+
+    private double iterate(Benchmark benchmark) {
+        long ops = 0;
+        long elapsed = 0;
+        while (elapsed < ITERATION_TIME) {
+            benchmark.setup();
+            long start = System.nanoTime();
+            ops += benchmark.run();
+            elapsed += System.nanoTime() - start;
+        }
+        return ops * 1e9 / elapsed;
+    }
+
+    public int run(String filter) {
+        int regressions = 0;
+        for (Benchmark benchmark : this.benchmarks) {
+            if (filter != null && !benchmark.name.contains(filter)) continue;
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                this.iterate(benchmark);
+            }
+
+            Summary summary = new Summary(benchmark.name);
+            for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+                summary.add(this.iterate(benchmark));
+            }
+            double score = summary.getMean();
+            this.results.setProperty(benchmark.name, String.format("%.1f", score));
+
+            double error = summary.getConfidenceInterval();
+            String line = String.format("%-40s %14.1f +- %10.1f %s", benchmark.name, score, error, benchmark.unit);
+            String value = this.baseline.getProperty(benchmark.name);
+            if (value != null) {
+                double change = score / Double.parseDouble(value) - 1;
+                double bound = (score + error) / Double.parseDouble(value) - 1;
+                line += String.format("  (%+.1f%% vs baseline)", change * 100);
+                if (bound < -REGRESSION_THRESHOLD) {
+                    line += " REGRESSION";
+                    regressions++;
+                }
+            }
+            Summary reference = benchmark.reference == null ? null : this.summaries.get(benchmark.reference);
+            if (reference != null) {
+                double overhead = 1 - score / reference.getMean();
+                double bound = 1 - (score + error) / (reference.getMean() - reference.getConfidenceInterval());
+                line += String.format("  (%.1f%% overhead vs %s)", overhead * 100, benchmark.reference);
+                if (bound > OVERHEAD_TOLERANCE) {
+                    line += " OVERHEAD";
+                    regressions++;
+                }
+            }
+            this.summaries.put(benchmark.name, summary);
+            System.out.println(line);
+        }
+        return regressions;
+    }
+
+    public void saveResults(String file) throws IOException {
+        TreeMap<Object, Object> merged = new TreeMap<>();
+        merged.putAll(this.baseline);
+        merged.putAll(this.results);
+        try (FileWriter writer = new FileWriter(file)) {
+            String s = System.lineSeparator();
+            writer.write("# Benchmark baseline (throughput, higher is better)" + s);
+            for (Map.Entry<Object, Object> entry : merged.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + s);
+            }
+        }
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) throws IOException {
+        String file = "bench/baseline.properties";
+        Properties baseline = new Properties();
+        try (FileReader reader = new FileReader(file)) {
+            baseline.load(reader);
+        } catch (IOException e) {
+            System.out.println("No baseline found at " + file);
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(baseline);
+        QueueBenchmarks.register(runner);
+        SimulationBenchmarks.register(runner);
+        MemoryBenchmarks.register(runner);
+
+        String filter = null;
+        for (String arg : args) {
+            if (arg.startsWith("--filter=")) filter = arg.substring("--filter=".length());
+        }
+        int regressions = runner.run(filter);
+        if (MultiprogrammingOS.hasOption(args, "--update-baseline")) {
+            runner.saveResults(file);
+        } else if (regressions > 0) {
+            System.out.println(Integer.toString(regressions) + " benchmark(s) regressed");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+
+package os;
+
+import os.job.JobSource;
+import os.report.ResultSink;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checkpoint regression gate: runs each configuration to completion once
+ * without a checkpoint, once writing a checkpoint on the way and once
+ * restored from that checkpoint, and fails unless the three reports are
+ * identical.
+ *
+ * @author mnprtpsingh
+ */
+public class CheckpointGate {
+    private static final int CHECKPOINT_AT = 700;
+    private static final String[][] CONFIGURATIONS = {
+        { "--jobs=200", "--workload", "--interarrival=exponential:30", "--seed=1" },
+        { "--jobs=200", "--workload", "--interarrival=exponential:30", "--seed=2" },
+        { "--jobs=200", "--workload", "--interarrival=exponential:30", "--seed=3" },
+        { "--jobs=200", "--paging", "--seed=2" },
+        { "--jobs=200", "--admission-window=8", "--seed=4" },
+        { "--jobs=200", "--cores=4", "--metrics", "--seed=5" },
+    };
+
+    private static JobSource createSource(ComputerSystem system, String[] args) {
+        long seed = Long.parseLong(MultiprogrammingOS.getOption(args, "--seed", "0"));
+        int numberOfJobs = MultiprogrammingOS.getOption(args, "--jobs", 0);
+        if (MultiprogrammingOS.hasOption(args, "--workload")) {
+            return MultiprogrammingOS.createWorkload(system, args, seed, numberOfJobs);
+        }
+        return new RandomJobSource(new Random(seed), numberOfJobs, system.getNumberOfDeviceClasses());
+    }
+
+    private static byte[] report(ComputerSystem system) throws IOException {
+        Path path = Files.createTempFile("report", ".txt");
+        try {
+            try (ResultSink sink = ResultSink.create("text", path, false)) {
+                MultiprogrammingOS.writeResults(system, sink);
+            }
+            return Files.readAllBytes(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static boolean check(String[] args, boolean eventDriven) throws IOException {
+        String name = String.join(" ", args) + (eventDriven ? " --event-driven" : "");
+        ComputerSystem plain = MultiprogrammingOS.createSystem(args);
+        MultiprogrammingOS.simulate(plain, createSource(plain, args), eventDriven);
+        byte[] expected = report(plain);
+
+        Path checkpoint = Files.createTempFile("checkpoint", ".bin");
+        try {
+            ComputerSystem saved = MultiprogrammingOS.createSystem(args);
+            MultiprogrammingOS.simulate(saved, createSource(saved, args), eventDriven, checkpoint, CHECKPOINT_AT);
+            ComputerSystem restored = Checkpoint.restore(checkpoint);
+            MultiprogrammingOS.run(restored, eventDriven, Integer.MAX_VALUE);
+
+            String failure = null;
+            if (!Arrays.equals(report(saved), expected)) failure = "checkpoint changes the run";
+            else if (!Arrays.equals(report(restored), expected)) failure = "restored run differs";
+            System.out.println(String.format("%-72s %s", name, failure == null ? "ok" : failure.toUpperCase()));
+            return failure == null;
+        } finally {
+            Files.delete(checkpoint);
+        }
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) throws IOException {
+        int failures = 0;
+        for (String[] configuration : CONFIGURATIONS) {
+            if (!check(configuration, false)) failures++;
+            if (!check(configuration, true)) failures++;
+        }
+        if (failures > 0) {
+            System.out.println(Integer.toString(failures) + " configuration(s) do not survive a checkpoint");
+            System.exit(1);
+        }
+    }
+}
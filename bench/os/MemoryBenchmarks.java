@@ -0,0 +1,85 @@
+
+package os;
+
+import os.memory.BestFitAllocator;
+import os.memory.BuddyAllocator;
+import os.memory.FirstFitAllocator;
+import os.memory.MemoryAllocator;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for the memory allocators: a fixed, seeded sequence of
+ * allocations and frees that keeps the memory partly full and fragmented.
+ * Allocation latency is measured here rather than in the simulation, so
+ * the simulation reports stay deterministic.
+ *
+ * @author mnprtpsingh
+ */
+public class MemoryBenchmarks {
+    private static final String[] ALLOCATORS = { "first-fit", "best-fit", "buddy" };
+    private static final int CAPACITY = 1 << 16;
+    private static final int OPERATIONS = 100_000;
+    private static final int LIVE_BLOCKS = 512;
+
+    private static MemoryAllocator createAllocator(String name) {
+        switch (name) {
+            case "first-fit":
+                return new FirstFitAllocator(CAPACITY, 0);
+            case "best-fit":
+                return new BestFitAllocator(CAPACITY, 0);
+            default:
+                return new BuddyAllocator(CAPACITY, 0);
+        }
+    }
+
+    private static void addAllocatorBenchmark(BenchmarkRunner runner, String name) {
+        Random random = new Random(CAPACITY);
+        int[] sizes = new int[OPERATIONS];
+        int[] picks = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            sizes[i] = 5 + random.nextInt(196);
+            picks[i] = random.nextInt(LIVE_BLOCKS);
+        }
+
+        runner.add(new Benchmark("memory." + name + ".allocateFree", "ops/s") {
+            private MemoryAllocator allocator;
+            private final int[] addresses = new int[LIVE_BLOCKS];
+            private final int[] lengths = new int[LIVE_BLOCKS];
+
+            @Override
+            void setup() {
+                this.allocator = createAllocator(name);
+            }
+
+            @Override
+            long run() {
+                int live = 0;
+                long checksum = 0;
+                for (int i = 0; i < OPERATIONS; i++) {
+                    int address = -1;
+                    if (live < LIVE_BLOCKS && picks[i] % 4 != 0) address = this.allocator.allocate(sizes[i]);
+                    if (address >= 0) {
+                        this.addresses[live] = address;
+                        this.lengths[live] = sizes[i];
+                        live++;
+                        checksum += address;
+                    } else if (live > 0) {
+                        int block = picks[i] % live;
+                        this.allocator.free(this.addresses[block], this.lengths[block]);
+                        live--;
+                        this.addresses[block] = this.addresses[live];
+                        this.lengths[block] = this.lengths[live];
+                    }
+                }
+                BenchmarkRunner.consume(checksum);
+                return OPERATIONS;
+            }
+        });
+    }
+
+    public static void register(BenchmarkRunner runner) {
+        for (String name : ALLOCATORS) {
+            addAllocatorBenchmark(runner, name);
+        }
+    }
+}
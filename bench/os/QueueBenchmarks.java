@@ -0,0 +1,107 @@
+
+package os;
+
+import os.job.*;
+import os.policy.ProcessQueue;
+import os.process.Process;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for the scheduler queues and job admission.
+ *
+ * @author mnprtpsingh
+ */
+public class QueueBenchmarks {
+    private static final int[] SIZES = { 10, 1_000, 100_000, 1_000_000 };
+
+    private static Job createJob(Random random, BurstType type) {
+        ArrayList<Burst> bursts = new ArrayList<>();
+        int memReq = 5 + random.nextInt(196);
+        bursts.add(MultiprogrammingOS.createCPUBurst(random, memReq));
+        if (type == BurstType.IO_BURST) bursts.add(MultiprogrammingOS.createIOBurst(random));
+        Job job = new Job("Program", bursts);
+        if (type == BurstType.IO_BURST) job.getNextBurst();
+        return job;
+    }
+
+    private static Process[] createProcesses(ComputerSystem system, int size, BurstType type) {
+        Random random = new Random(size);
+        Process[] procs = new Process[size];
+        for (int i = 0; i < size; i++) {
+            procs[i] = new Process(createJob(random, type), system, i, 0);
+        }
+        return procs;
+    }
+
+    private static void addQueueBenchmark(BenchmarkRunner runner, String name, int size,
+            BurstType type, QueueSelector selector) {
+        ComputerSystem system = new ComputerSystem(1024, 320);
+        runner.add(new Benchmark(name + ".enqueueDequeue." + Integer.toString(size), "ops/s") {
+            private Process[] procs;
+            private ProcessQueue queue;
+
+            @Override
+            void setup() {
+                if (this.procs == null) this.procs = createProcesses(system, size, type);
+                this.queue = selector.select(system.getShortTermScheduler());
+            }
+
+            @Override
+            long run() {
+                for (Process proc : this.procs) {
+                    this.queue.add(proc);
+                }
+                long pids = 0;
+                while (!this.queue.isEmpty()) {
+                    pids += this.queue.remove().pid;
+                }
+                BenchmarkRunner.consume(pids);
+                return 2L * size;
+            }
+        });
+    }
+
+    private static void addLoadJobBenchmark(BenchmarkRunner runner, int size) {
+        Random random = new Random(size);
+        LinkedList<Job> jobs = new LinkedList<>();
+        for (int i = 0; i < size; i++) {
+            jobs.add(createJob(random, BurstType.CPU_BURST));
+        }
+
+        runner.add(new Benchmark("lts.loadJob." + Integer.toString(size), "ops/s") {
+            private LongTermScheduler lts;
+
+            @Override
+            void setup() {
+                ComputerSystem system = new ComputerSystem(Integer.MAX_VALUE, 320);
+                this.lts = system.getLongTermScheduler();
+                this.lts.addNewJobs(jobs);
+            }
+
+            @Override
+            long run() {
+                long loaded = 0;
+                while (this.lts.loadJob()) loaded++;
+                BenchmarkRunner.consume(loaded);
+                return loaded;
+            }
+        });
+    }
+
+    public static void register(BenchmarkRunner runner) {
+        for (int size : SIZES) {
+            addQueueBenchmark(runner, "sts.readyQueue", size, BurstType.CPU_BURST,
+                    sts -> sts.getReadyQueue(0));
+            addQueueBenchmark(runner, "sts.ioWaitQueue", size, BurstType.IO_BURST,
+                    sts -> sts.getIOWaitQueue(0));
+            addQueueBenchmark(runner, "sts.memoryWaitQueue", size, BurstType.CPU_BURST,
+                    sts -> sts.getMemoryWaitQueue());
+        }
+        for (int size : SIZES) {
+            if (size > 100_000) continue;
+            addLoadJobBenchmark(runner, size);
+        }
+    }
+}
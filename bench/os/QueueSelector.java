@@ -0,0 +1,13 @@
+
+package os;
+
+import os.policy.ProcessQueue;
+
+/**
+ * Picks the scheduler queue a queue benchmark works on.
+ *
+ * @author mnprtpsingh
+ */
+interface QueueSelector {
+    ProcessQueue select(ShortTermScheduler sts);
+}
@@ -0,0 +1,67 @@
+
+package os;
+
+import os.job.Job;
+import os.metrics.Metrics;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * End-to-end benchmarks reporting simulated ticks and completed jobs per
+ * second for canonical workloads of increasing size.
+ *
+ * @author mnprtpsingh
+ */
+public class SimulationBenchmarks {
+    private static final int[] SIZES = { 10, 100, 1_000, 10_000 };
+
+    private static LinkedList<Job> createWorkload(ComputerSystem system, int size) {
+        Random random = new Random(size);
+        LinkedList<Job> jobs = new LinkedList<>();
+        while (jobs.size() < size) {
+            jobs.addAll(MultiprogrammingOS.createJobs(system, random));
+        }
+        while (jobs.size() > size) {
+            jobs.removeLast();
+        }
+        return jobs;
+    }
+
+    private static void addSimulationBenchmark(BenchmarkRunner runner, int size, boolean eventDriven, boolean ticks) {
+        addSimulationBenchmark(runner, size, eventDriven, ticks, false);
+    }
+
+    private static void addSimulationBenchmark(BenchmarkRunner runner, int size, boolean eventDriven, boolean ticks,
+            boolean metrics) {
+        String mode = (eventDriven ? "eventDriven" : "tick") + (metrics ? ".metrics" : "");
+        String name = "simulation." + mode + (ticks ? ".ticks." : ".jobs.") + Integer.toString(size);
+        String reference = metrics ? name.replace(".metrics", "") : null;
+        runner.add(new Benchmark(name, ticks ? "ticks/s" : "jobs/s", reference) {
+            private ComputerSystem system;
+            private LinkedList<Job> jobs;
+
+            @Override
+            void setup() {
+                this.system = new ComputerSystem(1024, 320);
+                if (metrics) this.system.setMetrics(new Metrics(10));
+                this.jobs = createWorkload(this.system, size);
+            }
+
+            @Override
+            long run() {
+                MultiprogrammingOS.simulate(this.system, this.jobs, eventDriven);
+                return ticks ? this.system.getClock() : size;
+            }
+        });
+    }
+
+    public static void register(BenchmarkRunner runner) {
+        for (int size : SIZES) {
+            addSimulationBenchmark(runner, size, false, true);
+            addSimulationBenchmark(runner, size, false, false);
+            addSimulationBenchmark(runner, size, true, true);
+            addSimulationBenchmark(runner, size, true, false);
+            addSimulationBenchmark(runner, size, false, true, true);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+
+package os;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tunes the memory reserve of the long-term scheduler and the admission
+ * cadence while the simulation runs. Every period it looks at the CPU
+ * utilization, the mean depth of the memory wait queue and the processes
+ * killed since the last decision: kills or a deep memory wait queue make
+ * admission more careful, while a CPU below the target utilization
+ * with nothing waiting for memory makes it more eager. The reserve moves
+ * up faster than it comes down, both settings stay within their bounds,
+ * and every decision can be streamed to a log as it is made.
+ *
+ * @author mnprtpsingh
+ */
+public class AdmissionController implements Closeable {
+    public static final int HOLD = 0;
+    public static final int ADMIT = 1;
+    public static final int BACK_OFF = 2;
+    private static final String[] ACTIONS = { "hold", "admit", "back off" };
+    private static final double RESERVE_STEP = 0.01;
+    private static final double BACK_OFF_STEP = 0.05;
+    private static final double TOLERANCE = 0.05;
+
+    private final ComputerSystem system;
+    private final double target;
+    private final double minReserve;
+    private final double maxReserve;
+    private final int minInterval;
+    private final int maxInterval;
+    private final int period;
+    private BufferedWriter log;
+    private int decisions;
+    private int lastDecision;
+    private long lastBusyTime;
+    private int lastKills;
+    private long memoryWaitTime;
+    private int adjustments;
+
+    /**
+     * @param target the CPU utilization to steer towards
+     * @param period ticks between decisions
+     */
+    public AdmissionController(ComputerSystem system, double target, double minReserve, double maxReserve,
+            int minInterval, int maxInterval, int period) {
+        if (!(target > 0 && target <= 1)) throw new IllegalArgumentException("Target utilization must be in (0, 1]: " + target);
+        if (!(minReserve >= 0 && minReserve <= maxReserve && maxReserve < 1)) {
+            throw new IllegalArgumentException("Invalid reserve bounds: " + minReserve + ":" + maxReserve);
+        }
+        if (minInterval < 1 || minInterval > maxInterval) {
+            throw new IllegalArgumentException("Invalid load interval bounds: " + minInterval + ":" + maxInterval);
+        }
+        if (period < 1) throw new IllegalArgumentException("Control period must be positive: " + period);
+        this.system = system;
+        this.target = target;
+        this.minReserve = minReserve;
+        this.maxReserve = maxReserve;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.period = period;
+        this.decisions = 0;
+        this.lastDecision = system.getClock();
+        this.lastBusyTime = this.getBusyTime();
+        this.lastKills = system.getKills();
+        this.memoryWaitTime = 0;
+        this.adjustments = 0;
+    }
+
+    public double getTarget() {
+        return this.target;
+    }
+
+    public double getMinReserve() {
+        return this.minReserve;
+    }
+
+    public double getMaxReserve() {
+        return this.maxReserve;
+    }
+
+    public int getMinInterval() {
+        return this.minInterval;
+    }
+
+    public int getMaxInterval() {
+        return this.maxInterval;
+    }
+
+    public int getPeriod() {
+        return this.period;
+    }
+
+    public int getDecisions() {
+        return this.decisions;
+    }
+
+    /**
+     * @return the number of decisions that changed a setting
+     */
+    public int getAdjustments() {
+        return this.adjustments;
+    }
+
+    private long getBusyTime() {
+        long busyTime = 0;
+        for (int i = 0; i < this.system.getNumberOfCores(); i++) {
+            busyTime += this.system.getCPU(i).getBusyTime();
+        }
+        return busyTime;
+    }
+
+    void advance(int time) {
+        this.memoryWaitTime += (long) this.system.getShortTermScheduler().getMemoryWaitQueue().size() * time;
+    }
+
+    int getTimeToNextEvent() {
+        return this.lastDecision + this.period - this.system.getClock();
+    }
+
+    /**
+     * Decides once the period is over.
+     */
+    void control() {
+        int clock = this.system.getClock();
+        int elapsed = clock - this.lastDecision;
+        if (elapsed < this.period) return;
+        long busyTime = this.getBusyTime();
+        double utilization = (double) (busyTime - this.lastBusyTime) / elapsed / this.system.getNumberOfCores();
+        double memoryWait = (double) this.memoryWaitTime / elapsed;
+        int kills = this.system.getKills() - this.lastKills;
+
+        LongTermScheduler lts = this.system.getLongTermScheduler();
+        double reserve = lts.getReserve();
+        int interval = this.system.getLoadInterval();
+        int action = HOLD;
+        if (kills > 0 || memoryWait > this.system.getNumberOfCores()) {
+            reserve = Math.min(reserve + BACK_OFF_STEP, this.maxReserve);
+            interval = Math.min(interval * 2, this.maxInterval);
+            action = BACK_OFF;
+        } else if (utilization < this.target - TOLERANCE && memoryWait == 0) {
+            reserve = Math.max(reserve - RESERVE_STEP, this.minReserve);
+            interval = Math.max(interval / 2, this.minInterval);
+            action = ADMIT;
+        } else if (utilization > this.target + TOLERANCE && memoryWait > 0) {
+            reserve = Math.min(reserve + RESERVE_STEP, this.maxReserve);
+            action = BACK_OFF;
+        }
+        reserve = Math.round(reserve * 1000) / 1000.0;
+        if (reserve != lts.getReserve() || interval != this.system.getLoadInterval()) {
+            lts.setReserve(reserve);
+            this.system.setLoadInterval(interval);
+            this.adjustments++;
+        } else {
+            action = HOLD;
+        }
+        this.decisions++;
+        if (this.log != null) this.log(clock, utilization, memoryWait, kills, reserve, interval, action);
+
+        this.lastDecision = clock;
+        this.lastBusyTime = busyTime;
+        this.lastKills = this.system.getKills();
+        this.memoryWaitTime = 0;
+    }
+
+    /**
+     * Writes every decision from now on to a CSV file.
+     */
+    public void setLog(Path path) throws IOException {
+        this.log = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        this.log.write("time,utilization,memory_wait,kills,reserve,load_interval,action");
+        this.log.newLine();
+    }
+
+    private void log(int clock, double utilization, double memoryWait, int kills, double reserve, int interval,
+            int action) {
+        try {
+            this.log.write(Integer.toString(clock));
+            this.log.write(',');
+            this.log.write(Double.toString(utilization));
+            this.log.write(',');
+            this.log.write(Double.toString(memoryWait));
+            this.log.write(',');
+            this.log.write(Integer.toString(kills));
+            this.log.write(',');
+            this.log.write(Double.toString(reserve));
+            this.log.write(',');
+            this.log.write(Integer.toString(interval));
+            this.log.write(',');
+            this.log.write(ACTIONS[action]);
+            this.log.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.log != null) this.log.close();
+    }
+
+    void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.lastDecision);
+        out.putLong(this.lastBusyTime);
+        out.putInt(this.lastKills);
+        out.putLong(this.memoryWaitTime);
+        out.putInt(this.adjustments);
+        out.putInt(this.decisions);
+    }
+
+    void restore(CheckpointReader in) throws IOException {
+        this.lastDecision = in.getInt();
+        this.lastBusyTime = in.getLong();
+        this.lastKills = in.getInt();
+        this.memoryWaitTime = in.getLong();
+        this.adjustments = in.getInt();
+        this.decisions = in.getInt();
+    }
+}
@@ -1,14 +1,27 @@
 
 package os;
 
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
 import os.process.Process;
+import java.io.IOException;
 
 /**
  *
  * @author mnprtpsingh
  */
 public class CPU {
+    public final int id;
     private Process runningProcess;
+    private int busyTime;
+    private int stallTime;
+    private int sliceTime;
+
+    public CPU(int id) {
+        this.id = id;
+        this.busyTime = 0;
+        this.stallTime = 0;
+    }
     
     public Process getRunningProcess() {
         return this.runningProcess;
@@ -16,5 +29,51 @@ public class CPU {
     
     public void setRunningProcess(Process proc) {
         this.runningProcess = proc;
+        this.sliceTime = 0;
+    }
+
+    public int getBusyTime() {
+        return this.busyTime;
+    }
+
+    public void addBusyTime(int time) {
+        this.busyTime += time;
+    }
+
+    public int getSliceTime() {
+        return this.sliceTime;
+    }
+
+    public void addSliceTime(int time) {
+        this.sliceTime += time;
+    }
+
+    public int getStallTime() {
+        return this.stallTime;
+    }
+
+    public void setStallTime(int time) {
+        this.stallTime = time;
+    }
+
+    public int stall(int time) {
+        int stalled = Math.min(time, this.stallTime);
+        this.stallTime -= stalled;
+        return time - stalled;
+    }
+
+    /**
+     * Saves the counters; the running process is saved by the caller.
+     */
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.busyTime);
+        out.putInt(this.stallTime);
+        out.putInt(this.sliceTime);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        this.busyTime = in.getInt();
+        this.stallTime = in.getInt();
+        this.sliceTime = in.getInt();
     }
 }
@@ -0,0 +1,286 @@
+
+package os;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.job.Job;
+import os.job.ListJobSource;
+import os.memory.BackingStore;
+import os.memory.ReplacementPolicy;
+import os.metrics.Metrics;
+import os.policy.ProcessQueue;
+import os.policy.SchedulingPolicy;
+import os.process.Process;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Saves a paused ComputerSystem to a binary file and restores it, so that
+ * a long run can be resumed or branched from any event. Processes are
+ * written once and referenced by their process table slot everywhere
+ * else, and every queue is written in an order that rebuilds it exactly.
+ * Jobs still waiting in the job source are read into the snapshot apart
+ * from those waiting to arrive, and become the job source of the restored
+ * system.
+ *
+ * @author mnprtpsingh
+ */
+public final class Checkpoint {
+    private static final int MAGIC = 0x4F53434B;
+    private static final int VERSION = 9;
+
+    private Checkpoint() {
+    }
+
+    public static void save(ComputerSystem system, Path path) throws IOException {
+        ShortTermScheduler sts = system.getShortTermScheduler();
+        LinkedList<Job> jobs = system.getLongTermScheduler().getPendingJobs();
+        LinkedList<Job> arrivals = system.getLongTermScheduler().getArrivals();
+        LinkedList<Job> unread = system.getLongTermScheduler().getUnreadJobs();
+        Metrics metrics = system.getMetrics();
+        MediumTermScheduler mts = system.getMediumTermScheduler();
+        AdmissionController controller = system.getAdmissionController();
+        Pager pager = system.getPager();
+
+        try (CheckpointWriter out = new CheckpointWriter(path)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(system.getRAM());
+            out.putInt(system.getOSMemorySize());
+            out.putInt(system.getNumberOfCores());
+            out.putString(system.getMemoryManager().getName());
+            savePolicy(out, system.getCPUPolicy());
+            savePolicy(out, system.getIOPolicy());
+            out.putInt(system.getNumberOfIODevices());
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                IO_Device device = system.getIODevice(i);
+                out.putString(device.name);
+                out.putInt(device.deviceClass);
+                out.putDouble(device.getScale());
+            }
+            out.putInt(metrics == null ? 0 : metrics.getInterval());
+            out.putInt(mts == null ? 0 : mts.getBackingStore().getCapacity());
+            if (mts != null) out.putInt(mts.getRate());
+            out.putBoolean(controller != null);
+            if (controller != null) {
+                out.putDouble(controller.getTarget());
+                out.putDouble(controller.getMinReserve());
+                out.putDouble(controller.getMaxReserve());
+                out.putInt(controller.getMinInterval());
+                out.putInt(controller.getMaxInterval());
+                out.putInt(controller.getPeriod());
+            }
+            out.putBoolean(pager != null);
+            if (pager != null) {
+                out.putInt(pager.getPageSize());
+                out.putString(pager.getPolicy().getName());
+                out.putInt(pager.getTlbSize());
+                out.putDouble(pager.getWorkingSet());
+                out.putInt(pager.getFaultTime());
+                out.putInt(pager.getDeviceClass());
+                out.putDouble(pager.getOvercommit());
+            }
+
+            system.save(out);
+            system.getMemoryManager().save(out);
+            system.getProcessTable().save(out);
+            system.getCPUPolicy().save(out);
+            system.getIOPolicy().save(out);
+            if (metrics != null) metrics.save(out);
+
+            LinkedHashMap<Integer, Process> procs = new LinkedHashMap<>();
+            for (int i = 0; i < system.getNumberOfCores(); i++) {
+                collect(procs, system.getCPU(i).getRunningProcess());
+                for (Process proc : sts.getReadyQueue(i)) collect(procs, proc);
+            }
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                collect(procs, system.getIODevice(i).getBusyProcess());
+                for (Process proc : sts.getIOWaitQueue(i)) collect(procs, proc);
+            }
+            for (Process proc : sts.getMemoryAllocated()) collect(procs, proc);
+            for (Process proc : sts.getMemoryWaitQueue()) collect(procs, proc);
+            for (Process proc : sts.getKilledQueue()) collect(procs, proc);
+            for (Process proc : sts.getTerminatedQueue()) collect(procs, proc);
+            if (mts != null) {
+                collect(procs, mts.getTransfer());
+                for (Process proc : mts.getSwapped()) collect(procs, proc);
+            }
+            out.putInt(procs.size());
+            for (Process proc : procs.values()) {
+                proc.save(out);
+            }
+
+            for (int i = 0; i < system.getNumberOfCores(); i++) {
+                CPU cpu = system.getCPU(i);
+                putProcess(out, cpu.getRunningProcess());
+                cpu.save(out);
+                saveQueue(out, sts.getReadyQueue(i));
+            }
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                IO_Device device = system.getIODevice(i);
+                putProcess(out, device.getBusyProcess());
+                device.save(out);
+                saveQueue(out, sts.getIOWaitQueue(i));
+            }
+            putProcesses(out, sts.getMemoryWaitQueue(), sts.getMemoryWaitQueue().size());
+            putProcesses(out, sts.getMemoryAllocated(), sts.getMemoryAllocated().size());
+            putProcesses(out, sts.getKilledQueue(), sts.getKilledQueue().size());
+            putProcesses(out, sts.getTerminatedQueue(), sts.getTerminatedQueue().size());
+            if (mts != null) mts.save(out);
+
+            saveJobs(out, jobs);
+            saveJobs(out, arrivals);
+            saveJobs(out, unread);
+            system.getLongTermScheduler().save(out);
+            if (controller != null) controller.save(out);
+            if (pager != null) pager.save(out);
+        }
+    }
+
+    public static ComputerSystem restore(Path path) throws IOException {
+        try (CheckpointReader in = new CheckpointReader(path)) {
+            if (in.getInt() != MAGIC) throw new IOException("Not a checkpoint: " + path);
+            int version = in.getInt();
+            if (version != VERSION) throw new IOException("Unsupported checkpoint version: " + version);
+            int ram = in.getInt();
+            int osMemorySize = in.getInt();
+            int cores = in.getInt();
+            ComputerSystem system = new ComputerSystem(ram, osMemorySize, cores, in.getString());
+            SchedulingPolicy cpuPolicy = restorePolicy(in);
+            SchedulingPolicy ioPolicy = restorePolicy(in);
+            IO_Device[] devices = new IO_Device[in.getInt()];
+            for (int i = 0; i < devices.length; i++) {
+                String name = in.getString();
+                int deviceClass = in.getInt();
+                devices[i] = new IO_Device(i, name, deviceClass, in.getDouble());
+            }
+            system.setIODevices(devices);
+            system.setSchedulingPolicy(cpuPolicy, ioPolicy);
+            int interval = in.getInt();
+            if (interval > 0) system.setMetrics(new Metrics(interval));
+            int capacity = in.getInt();
+            if (capacity > 0) system.setSwapping(BackingStore.createTemporary(capacity), in.getInt());
+            if (in.getBoolean()) {
+                system.setAdmissionController(new AdmissionController(system, in.getDouble(), in.getDouble(),
+                        in.getDouble(), in.getInt(), in.getInt(), in.getInt()));
+            }
+            if (in.getBoolean()) {
+                int pageSize = in.getInt();
+                ReplacementPolicy policy = ReplacementPolicy.create(in.getString());
+                system.setPager(new Pager(system, pageSize, policy, in.getInt(), in.getDouble(), in.getInt(),
+                        in.getInt(), in.getDouble()));
+            }
+
+            system.restore(in);
+            system.getMemoryManager().restore(in);
+            system.getProcessTable().restore(in);
+            cpuPolicy.restore(in);
+            ioPolicy.restore(in);
+            if (system.getMetrics() != null) system.getMetrics().restore(in);
+
+            Process[] procs = new Process[system.getProcessTable().size()];
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                Process proc = Process.restore(in, system);
+                procs[proc.getSlot()] = proc;
+            }
+
+            ShortTermScheduler sts = system.getShortTermScheduler();
+            for (int i = 0; i < cores; i++) {
+                CPU cpu = system.getCPU(i);
+                cpu.setRunningProcess(getProcess(in, procs));
+                cpu.restore(in);
+                restoreQueue(in, procs, sts.getReadyQueue(i));
+            }
+            for (IO_Device device : devices) {
+                device.setBusyProcess(getProcess(in, procs));
+                device.restore(in);
+                restoreQueue(in, procs, sts.getIOWaitQueue(device.id));
+            }
+            for (Process proc : getProcesses(in, procs)) sts.getMemoryWaitQueue().add(proc);
+            for (Process proc : getProcesses(in, procs)) sts.getMemoryAllocated().add(proc);
+            sts.getKilledQueue().addAll(getProcesses(in, procs));
+            sts.getTerminatedQueue().addAll(getProcesses(in, procs));
+            MediumTermScheduler mts = system.getMediumTermScheduler();
+            if (mts != null) mts.restore(in, procs);
+
+            system.getLongTermScheduler().addNewJobs(restoreJobs(in));
+            system.getLongTermScheduler().addArrivals(restoreJobs(in));
+            system.getLongTermScheduler().setJobSource(new ListJobSource(restoreJobs(in)));
+            system.getLongTermScheduler().restore(in);
+            if (system.getAdmissionController() != null) system.getAdmissionController().restore(in);
+            if (system.getPager() != null) system.getPager().restore(in);
+            return system;
+        }
+    }
+
+    private static void saveJobs(CheckpointWriter out, LinkedList<Job> jobs) throws IOException {
+        out.putInt(jobs.size());
+        for (Job job : jobs) {
+            job.save(out);
+        }
+    }
+
+    private static LinkedList<Job> restoreJobs(CheckpointReader in) throws IOException {
+        LinkedList<Job> jobs = new LinkedList<>();
+        int n = in.getInt();
+        for (int i = 0; i < n; i++) {
+            jobs.add(Job.restore(in));
+        }
+        return jobs;
+    }
+
+    private static void savePolicy(CheckpointWriter out, SchedulingPolicy policy) throws IOException {
+        out.putString(policy.getName());
+        out.putInt(policy.getQuantum());
+    }
+
+    private static SchedulingPolicy restorePolicy(CheckpointReader in) throws IOException {
+        String name = in.getString();
+        return SchedulingPolicy.create(name, in.getInt());
+    }
+
+    private static void collect(LinkedHashMap<Integer, Process> procs, Process proc) {
+        if (proc != null) procs.putIfAbsent(proc.getSlot(), proc);
+    }
+
+    private static void saveQueue(CheckpointWriter out, ProcessQueue queue) throws IOException {
+        queue.save(out);
+        putProcesses(out, queue, queue.size());
+    }
+
+    private static void restoreQueue(CheckpointReader in, Process[] procs, ProcessQueue queue) throws IOException {
+        queue.restore(in);
+        for (Process proc : getProcesses(in, procs)) {
+            queue.add(proc);
+        }
+    }
+
+    private static void putProcess(CheckpointWriter out, Process proc) throws IOException {
+        out.putInt(proc == null ? -1 : proc.getSlot());
+    }
+
+    private static Process getProcess(CheckpointReader in, Process[] procs) throws IOException {
+        int slot = in.getInt();
+        return slot < 0 ? null : procs[slot];
+    }
+
+    private static void putProcesses(CheckpointWriter out, Iterable<Process> queue, int size) throws IOException {
+        out.putInt(size);
+        for (Process proc : queue) {
+            out.putInt(proc.getSlot());
+        }
+    }
+
+    private static Collection<Process> getProcesses(CheckpointReader in, Process[] procs) throws IOException {
+        int n = in.getInt();
+        LinkedList<Process> result = new LinkedList<>();
+        for (int i = 0; i < n; i++) {
+            result.add(procs[in.getInt()]);
+        }
+        return result;
+    }
+}
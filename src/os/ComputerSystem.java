@@ -1,43 +1,106 @@
 
 package os;
 
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
 import os.process.Process;
-import os.job.*;
+import os.process.ProcessTable;
+import os.journal.EventJournal;
+import os.memory.BackingStore;
+import os.memory.MemoryManager;
+import os.metrics.Metrics;
+import os.timeline.TimelineWriter;
+import os.policy.ProcessQueue;
+import os.policy.SchedulingPolicy;
+import os.policy.ShortestRemainingTimePolicy;
+import java.io.IOException;
 
 /**
  *
  * @author mnprtpsingh
  */
 public class ComputerSystem {
+    private static final int LOAD_INTERVAL = 200;
+
     private final int totalRAM;
     private final int osMemorySize;
-    private int memoryUsage;
     private int counter;
     private int clock;
     private double utilization;
+    private boolean affinity;
+    private int migrationCost;
+    private int migrations;
+    private boolean retainProcesses;
+    private boolean admitOnRelease;
+    private boolean memoryReleased;
+    private long memoryTime;
+    private int loadInterval;
+    private int nextLoad;
+    private int kills;
+    private SchedulingPolicy cpuPolicy;
+    private SchedulingPolicy ioPolicy;
+    private Metrics metrics;
+    private EventJournal journal;
+    private TimelineWriter timeline;
 
-    private final CPU cpu;
-    private final IO_Device ioDevice;
+    private final ProcessTable processTable;
+    private final MemoryManager memory;
+    private final CPU[] cpus;
+    private IO_Device[] ioDevices;
+    private int deviceClasses;
     private final LongTermScheduler lts;
     private final ShortTermScheduler sts;
+    private MediumTermScheduler mts;
+    private LiveExecutor executor;
+    private AdmissionController controller;
+    private Pager pager;
 
     ComputerSystem(int ram, int osMemorySize) {
-        this.cpu = new CPU();
-        this.ioDevice = new IO_Device();
+        this(ram, osMemorySize, 1);
+    }
+
+    ComputerSystem(int ram, int osMemorySize, int cores) {
+        this(ram, osMemorySize, cores, "pooled");
+    }
+
+    ComputerSystem(int ram, int osMemorySize, int cores, String allocator) {
+        this.processTable = new ProcessTable();
+        this.memory = MemoryManager.create(allocator, ram, osMemorySize);
+        this.cpus = new CPU[cores];
+        for (int i = 0; i < cores; i++) {
+            this.cpus[i] = new CPU(i);
+        }
+        this.ioDevices = new IO_Device[] { new IO_Device() };
+        this.deviceClasses = 1;
+        this.cpuPolicy = new ShortestRemainingTimePolicy();
+        this.ioPolicy = new ShortestRemainingTimePolicy();
         this.lts = new LongTermScheduler(this);
         this.sts = new ShortTermScheduler(this);
 
         this.totalRAM = ram;
         this.osMemorySize = osMemorySize;
-        this.memoryUsage = osMemorySize;
         this.counter = 0;
         this.clock = 0;
+        this.affinity = false;
+        this.migrationCost = 0;
+        this.migrations = 0;
+        this.retainProcesses = true;
+        this.admitOnRelease = false;
+        this.memoryReleased = false;
+        this.memoryTime = 0;
+        this.loadInterval = LOAD_INTERVAL;
+        this.nextLoad = LOAD_INTERVAL;
+        this.kills = 0;
     }
 
     public int getRAM() {
         return this.totalRAM;
     }
 
+    public int getOSMemorySize() {
+        return this.osMemorySize;
+    }
+
     public int getCounter() {
         return this.counter;
     }
@@ -50,8 +113,161 @@ public class ComputerSystem {
         return this.clock;
     }
 
-    private void incrementClock() {
-        this.clock++;
+    public int getNumberOfCores() {
+        return this.cpus.length;
+    }
+
+    public CPU getCPU(int core) {
+        return this.cpus[core];
+    }
+
+    public boolean hasAffinity() {
+        return this.affinity;
+    }
+
+    public void setAffinity(boolean affinity) {
+        this.affinity = affinity;
+    }
+
+    public void setMigrationCost(int cost) {
+        this.migrationCost = cost;
+    }
+
+    public int getMigrations() {
+        return this.migrations;
+    }
+
+    public boolean retainsProcesses() {
+        return this.retainProcesses;
+    }
+
+    public void setRetainProcesses(boolean retain) {
+        this.retainProcesses = retain;
+    }
+
+    /**
+     * @param admit whether to admit jobs whenever memory is released, on
+     * on top of every load interval
+     */
+    public void setAdmitOnRelease(boolean admit) {
+        this.admitOnRelease = admit;
+    }
+
+    public int getLoadInterval() {
+        return this.loadInterval;
+    }
+
+    /**
+     * @param interval ticks between two regular admissions; a shorter
+     * interval takes effect from the current tick
+     */
+    public void setLoadInterval(int interval) {
+        if (interval < 1) throw new IllegalArgumentException("Load interval must be positive: " + interval);
+        this.loadInterval = interval;
+        this.nextLoad = Math.min(this.nextLoad, this.clock + interval);
+    }
+
+    /**
+     * @return the number of processes killed to resolve memory deadlocks
+     */
+    public int getKills() {
+        return this.kills;
+    }
+
+    /**
+     * @return the share of user memory in use, averaged over the run
+     */
+    public double getMemoryOccupancy() {
+        return (double) this.memoryTime / this.clock / (this.totalRAM - this.osMemorySize);
+    }
+
+    public SchedulingPolicy getCPUPolicy() {
+        return this.cpuPolicy;
+    }
+
+    public SchedulingPolicy getIOPolicy() {
+        return this.ioPolicy;
+    }
+
+    /**
+     * Replaces the ready and IO wait queues, so it must be called before
+     * any job is loaded.
+     */
+    public void setSchedulingPolicy(SchedulingPolicy cpuPolicy, SchedulingPolicy ioPolicy) {
+        this.cpuPolicy = cpuPolicy;
+        this.ioPolicy = ioPolicy;
+        this.sts.createQueues();
+    }
+
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public EventJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Only processes created afterwards are journaled, so it must be called
+     * before any job is loaded.
+     */
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    public TimelineWriter getTimeline() {
+        return this.timeline;
+    }
+
+    /**
+     * Like the journal, only processes created afterwards show up, so it
+     * must be called before any job is loaded.
+     */
+    public void setTimeline(TimelineWriter timeline) {
+        this.timeline = timeline;
+    }
+
+    public int getNumberOfIODevices() {
+        return this.ioDevices.length;
+    }
+
+    public IO_Device getIODevice(int device) {
+        return this.ioDevices[device];
+    }
+
+    public int getNumberOfDeviceClasses() {
+        return this.deviceClasses;
+    }
+
+    /**
+     * Replaces the IO devices and their wait queues, so it must be called
+     * before any job is loaded. Device ids must match their positions and
+     * every class from 0 up to the highest one must have a device.
+     */
+    public void setIODevices(IO_Device[] devices) {
+        int classes = 0;
+        for (int i = 0; i < devices.length; i++) {
+            if (devices[i].id != i) throw new IllegalArgumentException("Device " + devices[i].id + " is at position " + i);
+            classes = Math.max(classes, devices[i].deviceClass + 1);
+        }
+        for (int c = 0; c < classes; c++) {
+            boolean found = false;
+            for (IO_Device device : devices) {
+                if (device.deviceClass == c) found = true;
+            }
+            if (!found) throw new IllegalArgumentException("No device of class " + c);
+        }
+        this.ioDevices = devices;
+        this.deviceClasses = classes;
+        this.sts.createQueues();
+    }
+
+    public ProcessTable getProcessTable() {
+        return this.processTable;
     }
 
     public LongTermScheduler getLongTermScheduler() {
@@ -62,143 +278,480 @@ public class ComputerSystem {
         return this.sts;
     }
 
+    public MediumTermScheduler getMediumTermScheduler() {
+        return this.mts;
+    }
+
+    /**
+     * Swaps processes out to the store instead of killing them when every
+     * process is waiting for memory.
+     *
+     * @param rate the memory units transferred per tick
+     */
+    public void setSwapping(BackingStore store, int rate) {
+        if (store != null && this.pager != null) throw new IllegalArgumentException("Swapping does not work with paging");
+        this.mts = store == null ? null : new MediumTermScheduler(this, store, rate);
+    }
+
+    public LiveExecutor getLiveExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Runs every step of the simulation for real on the executor before
+     * the clock moves on.
+     */
+    public void setLiveExecutor(LiveExecutor executor) {
+        this.executor = executor;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return this.controller;
+    }
+
+    /**
+     * Lets the controller tune the memory reserve and the load interval
+     * as the run goes on.
+     */
+    public void setAdmissionController(AdmissionController controller) {
+        this.controller = controller;
+    }
+
+    public Pager getPager() {
+        return this.pager;
+    }
+
+    /**
+     * Pages memory instead of reserving it whole. Replaces the memory
+     * manager for every process, so it must be called before any job is
+     * loaded.
+     */
+    public void setPager(Pager pager) {
+        if (pager != null && this.mts != null) throw new IllegalArgumentException("Paging does not work with swapping");
+        this.pager = pager;
+    }
+
+    public MemoryManager getMemoryManager() {
+        return this.memory;
+    }
+
+    /**
+     * @return the memory left to admit jobs into; virtual memory when
+     * paging
+     */
     public int getAvailableMemorySize() {
-        return (this.totalRAM - this.memoryUsage);
+        if (this.pager != null) return this.pager.getVirtualFree();
+        return this.memory.getFreeMemory();
     }
 
-    public boolean allocateMemory(int request) {
-        if (request <= 0) return false;
-        if (this.getAvailableMemorySize() < request) return false;
-        this.memoryUsage += request;
-        return true;
+    /**
+     * @return the memory in use, including the operating system's
+     */
+    public int getMemoryUsed() {
+        if (this.pager != null) return this.osMemorySize + this.pager.getResidentMemory();
+        return this.totalRAM - this.memory.getFreeMemory();
     }
 
-    public boolean freeMemory(int size) {
-        if (size <= 0) return false;
-        if (size > this.memoryUsage - this.osMemorySize) return false;
-        this.memoryUsage -= size;
+    /**
+     * Applies the memory delta of a CPU burst to a process: a positive
+     * request allocates, a negative one gives memory back.
+     *
+     * @return false if a positive request does not fit
+     */
+    public boolean allocateMemory(Process proc, int request) {
+        if (request < 0) {
+            this.releaseMemory(proc, -request);
+            return true;
+        }
+        if (this.pager != null) return this.pager.resize(proc, request);
+        if (request == 0) return true;
+        int address = this.memory.allocate(request);
+        if (address < 0) return false;
+        proc.addRegion(address, request);
         return true;
     }
 
+    /**
+     * Gives part of a process's memory back, most recently allocated first.
+     * The memory counts as released, so jobs waiting for admission are
+     * retried; without this a negative delta would leak the memory until the
+     * process ends, and a workload could stall with every remaining job
+     * waiting for memory that is never returned.
+     */
+    private void releaseMemory(Process proc, int size) {
+        this.memoryReleased = true;
+        if (this.pager != null) {
+            this.pager.resize(proc, -size);
+            return;
+        }
+        while (size > 0 && proc.getNumberOfRegions() > 0) {
+            int region = proc.getNumberOfRegions() - 1;
+            int regionSize = proc.getRegionSize(region);
+            this.memory.free(proc.getRegionAddress(region), regionSize);
+            proc.removeRegion();
+            if (regionSize > size) {
+                int address = this.memory.allocate(regionSize - size);
+                if (address < 0) {
+                    throw new IllegalStateException("Could not re-allocate " + (regionSize - size)
+                            + " bytes kept by process " + proc.pid);
+                }
+                proc.addRegion(address, regionSize - size);
+            }
+            size -= regionSize;
+        }
+    }
+
+    public void freeMemory(Process proc) {
+        for (int i = 0; i < proc.getNumberOfRegions(); i++) {
+            this.memory.free(proc.getRegionAddress(i), proc.getRegionSize(i));
+        }
+        proc.clearRegions();
+        if (this.pager != null) this.pager.release(proc);
+        this.sts.getMemoryAllocated().remove(proc);
+        this.memoryReleased = true;
+    }
+
     public void dispatch() {
-        Process proc = this.cpu.getRunningProcess();
-        if (proc == null) {
-            proc = this.sts.dispatchToCPU();
-            if (proc != null) {
-                proc.dispatch();
-                this.cpu.setRunningProcess(proc);
+        for (CPU cpu : this.cpus) {
+            while (cpu.getRunningProcess() == null) {
+                Process proc = this.sts.dispatchToCPU(cpu.id);
+                if (proc == null) break;
+                this.dispatch(cpu, proc);
             }
         }
+        this.balance();
+        this.drainReadyQueues();
 
-        proc = this.ioDevice.getBusyProcess();
-        if (proc == null) {
-            proc = this.sts.dispatchForIO();
-            this.ioDevice.setBusyProcess(proc);
+        for (IO_Device device : this.ioDevices) {
+            if (device.getBusyProcess() == null) device.setBusyProcess(this.sts.dispatchForIO(device.id));
         }
     }
 
-    @SuppressWarnings("empty-statement")
+    /**
+     * Leaves the CPU idle if the process faults instead.
+     */
+    private void dispatch(CPU cpu, Process proc) {
+        if (this.pager != null) {
+            if (this.pager.fault(proc)) {
+                this.sts.addToIOWaitQueue(proc);
+                return;
+            }
+            this.pager.pageIn(proc);
+        }
+        int core = proc.getCore();
+        if (core >= 0 && core != cpu.id) {
+            cpu.setStallTime(this.migrationCost);
+            this.migrations++;
+        } else {
+            cpu.setStallTime(0);
+        }
+        proc.dispatch(cpu.id);
+        cpu.setRunningProcess(proc);
+    }
+
+    private void balance() {
+        for (CPU cpu : this.cpus) {
+            while (cpu.getRunningProcess() == null) {
+                Process proc = this.sts.steal(cpu.id);
+                if (proc == null) break;
+                this.dispatch(cpu, proc);
+            }
+        }
+    }
+
+    /**
+     * @return the head of a ready queue, after moving the processes at its
+     * head that would fault to their IO wait queue
+     */
+    private Process peekReady(ProcessQueue readyQueue) {
+        Process proc = readyQueue.peek();
+        while (this.pager != null && proc != null && this.pager.fault(proc)) {
+            readyQueue.remove();
+            this.sts.addToIOWaitQueue(proc);
+            proc = readyQueue.peek();
+        }
+        return proc;
+    }
+
+    /**
+     * Keeps the head of every ready queue a process that can run, so that
+     * faults start at the same tick in both simulation modes.
+     */
+    private void drainReadyQueues() {
+        if (this.pager == null) return;
+        for (CPU cpu : this.cpus) {
+            this.peekReady(this.sts.getReadyQueue(cpu.id));
+        }
+    }
+
+    private boolean isIdle() {
+        for (CPU cpu : this.cpus) {
+            if (cpu.getRunningProcess() != null) return false;
+        }
+        for (IO_Device device : this.ioDevices) {
+            if (device.getBusyProcess() != null) return false;
+        }
+        return this.mts == null || !this.mts.isBusy();
+    }
+
     public boolean run() {
-        Process runningProc = this.cpu.getRunningProcess();
-        Process busyProc = this.ioDevice.getBusyProcess();
-        if (runningProc == null && busyProc == null) {
-            if (this.sts.isTerminated() && !this.lts.hasJob()) return false;
+        if (!this.resume()) return false;
+        this.step(1);
+        return true;
+    }
+
+    public boolean runToNextEvent() {
+        if (!this.resume()) return false;
+        this.step(this.getTimeToNextEvent());
+        return true;
+    }
+
+    /**
+     * Runs to the next event, or only up to the given clock if the event is
+     * later; nothing happens between events, so stopping short of one is
+     * the same as running that many ticks.
+     */
+    public boolean runToNextEvent(int until) {
+        if (!this.resume()) return false;
+        this.step(Math.max(Math.min(this.getTimeToNextEvent(), until - this.clock), 1));
+        return true;
+    }
+
+    private void step(int time) {
+        if (this.timeline != null) this.timeline.sample();
+        if (this.executor != null) this.executor.execute(time);
+        this.advance(time);
+        this.settle();
+        if (this.executor != null) this.executor.release();
+    }
+
+    public int getTimeToNextEvent() {
+        int time = this.nextLoad - this.clock;
+        time = Math.min(time, this.cpuPolicy.getTimeToTick(this.clock));
+        time = Math.min(time, this.ioPolicy.getTimeToTick(this.clock));
+        time = Math.min(time, this.lts.getTimeToNextArrival());
+        if (this.mts != null) time = Math.min(time, this.mts.getTimeToNextEvent());
+        if (this.controller != null) time = Math.min(time, this.controller.getTimeToNextEvent());
+        if (this.pager != null) time = Math.min(time, this.pager.getTimeToNextEvent());
+        for (CPU cpu : this.cpus) {
+            Process runningProc = cpu.getRunningProcess();
+            if (runningProc != null) {
+                time = Math.min(time, cpu.getStallTime() + runningProc.getRemainingTime());
+                Process proc = this.sts.getReadyQueue(cpu.id).peek();
+                if (proc != null) {
+                    int preempt = this.cpuPolicy.getTimeToPreempt(runningProc, cpu.getSliceTime(), proc);
+                    if (preempt < time) time = Math.min(time, cpu.getStallTime() + preempt);
+                }
+            }
+        }
+        for (IO_Device device : this.ioDevices) {
+            Process busyProc = device.getBusyProcess();
+            if (busyProc != null) {
+                time = Math.min(time, busyProc.getRemainingTime());
+                Process proc = this.sts.getIOWaitQueue(device.id).peek();
+                if (proc != null) {
+                    time = Math.min(time, this.ioPolicy.getTimeToPreempt(busyProc, device.getSliceTime(), proc));
+                }
+            }
+        }
+        return Math.max(time, 1);
+    }
+
+    @SuppressWarnings("empty-statement")
+    private boolean resume() {
+        if (this.isIdle()) {
+            if (this.isFinished()) return false;
             while (this.sts.isDeadlocked()) {
                 Process proc = this.sts.getMemoryAllocated().remove();
                 this.sts.getMemoryWaitQueue().remove(proc);
+                if (this.mts != null && this.mts.swapOut(proc)) break;
                 proc.kill();
-                this.sts.getKilledQueue().add(proc);
+                this.sts.addKilled(proc);
+                this.kills++;
                 while (this.sts.allotMemory());
             }
-            if (this.sts.isTerminated() && !this.lts.hasJob()) return false;
+            if (this.mts != null && this.isIdle() && this.sts.isTerminated() && !this.mts.swapIn()) {
+                Process proc = this.mts.evict();
+                if (proc != null) {
+                    proc.kill();
+                    this.sts.addKilled(proc);
+                    this.kills++;
+                }
+            }
+            this.loadOnRelease();
+            if (this.isFinished()) return false;
 
             this.dispatch();
-            runningProc = this.cpu.getRunningProcess();
-            busyProc = this.ioDevice.getBusyProcess();
         }
+        return true;
+    }
 
-        if (runningProc != null) {
-            runningProc.run();
-            this.utilization++;
-        }
+    /**
+     * Admits jobs if memory was released since the last call, so that the
+     * admission happens at the same tick in both simulation modes.
+     */
+    private void loadOnRelease() {
+        if (this.memoryReleased && this.admitOnRelease) this.lts.loadJobs();
+        this.memoryReleased = false;
+    }
+
+    private boolean isFinished() {
+        if (this.mts != null && !this.mts.isEmpty()) return false;
+        return this.sts.isTerminated() && !this.lts.hasJob();
+    }
 
-        if (busyProc != null) {
-            busyProc.run();
+    private void sample(int time) {
+        int busyCores = 0;
+        int ready = 0;
+        for (CPU cpu : this.cpus) {
+            if (cpu.getRunningProcess() != null) busyCores++;
+            ready += this.sts.getReadyQueue(cpu.id).size();
         }
+        this.metrics.setGauge(Metrics.READY, ready);
+        int ioWait = 0;
+        int busyDevices = 0;
+        for (IO_Device device : this.ioDevices) {
+            ioWait += this.sts.getIOWaitQueue(device.id).size();
+            if (device.getBusyProcess() != null) busyDevices++;
+        }
+        this.metrics.setGauge(Metrics.IO_WAIT, ioWait);
+        this.metrics.setGauge(Metrics.MEMORY_WAIT, this.sts.getMemoryWaitQueue().size());
+        this.metrics.setGauge(Metrics.MEMORY_USED, this.getMemoryUsed());
+        this.metrics.setGauge(Metrics.BUSY_CORES, busyCores);
+        this.metrics.setGauge(Metrics.IO_BUSY, busyDevices);
+        this.metrics.sample(this.clock, time);
+    }
 
-        this.incrementCounter();
-        this.incrementClock();
+    private void advance(int time) {
+        if (this.metrics != null && this.metrics.isSampleDue(this.clock, time)) this.sample(time);
+        for (CPU cpu : this.cpus) {
+            Process runningProc = cpu.getRunningProcess();
+            if (runningProc != null) {
+                int runTime = cpu.stall(time);
+                if (runTime > 0) {
+                    if (this.pager != null) this.pager.reference(runningProc, cpu.id, runTime, this.clock + time - runTime);
+                    runningProc.run(runTime);
+                    this.cpuPolicy.run(runningProc, runTime);
+                    cpu.addSliceTime(runTime);
+                    cpu.addBusyTime(runTime);
+                    this.utilization += runTime;
+                }
+            }
+        }
 
-        if (this.clock % 200 == 0) {
-            while (this.lts.loadJob());
+        for (IO_Device device : this.ioDevices) {
+            device.addQueueTime((long) this.sts.getIOWaitQueue(device.id).size() * time);
+            Process busyProc = device.getBusyProcess();
+            if (busyProc != null) {
+                busyProc.run(time);
+                this.ioPolicy.run(busyProc, time);
+                device.addBusyTime(time);
+                device.addSliceTime(time);
+            }
         }
 
-        if (runningProc != null && runningProc.getRemainingTime() == 0) {
-            this.cpu.setRunningProcess(null);
-            if (runningProc.job.isLastBurst()) {
-                runningProc.terminate();
-                this.sts.getTerminatedQueue().add(runningProc);
-            } else {
-                runningProc.job.getNextBurst();
-                runningProc.ioWait();
-                this.sts.getIOWaitQueue().add(runningProc);
+        if (this.mts != null) this.mts.advance(time);
+        if (this.controller != null) this.controller.advance(time);
+        this.memoryTime += (long) (this.getMemoryUsed() - this.osMemorySize) * time;
+        this.counter += time;
+        this.clock += time;
+    }
+
+    @SuppressWarnings("empty-statement")
+    private void settle() {
+        this.cpuPolicy.tick(this.clock);
+        this.ioPolicy.tick(this.clock);
+        if (this.controller != null) this.controller.control();
+        if (this.pager != null) this.pager.control();
+        boolean arrived = this.lts.arrive();
+        boolean due = this.clock >= this.nextLoad;
+        if (due) this.nextLoad = this.clock + this.loadInterval;
+        if (due || arrived) this.lts.loadJobs();
+
+        for (CPU cpu : this.cpus) {
+            Process runningProc = cpu.getRunningProcess();
+            if (runningProc != null && runningProc.getRemainingTime() == 0) {
+                cpu.setRunningProcess(null);
+                if (runningProc.job.isLastBurst()) {
+                    runningProc.terminate();
+                    this.sts.addTerminated(runningProc);
+                } else {
+                    runningProc.job.nextBurst();
+                    runningProc.ioWait();
+                    this.sts.addToIOWaitQueue(runningProc);
+                }
             }
         }
 
-        if (busyProc != null && busyProc.getRemainingTime() == 0) {
-            this.ioDevice.setBusyProcess(null);
-            if (busyProc.job.isLastBurst()) {
+        for (IO_Device device : this.ioDevices) {
+            Process busyProc = device.getBusyProcess();
+            if (busyProc == null || busyProc.getRemainingTime() > 0) continue;
+            device.setBusyProcess(null);
+            if (busyProc.job.isFaulting()) {
+                busyProc.job.endFault();
+                this.pager.pageIn(busyProc);
+                busyProc.pagedIn();
+                this.sts.addToReadyQueue(busyProc);
+            } else if (busyProc.job.isLastBurst()) {
                 busyProc.terminate();
-                this.sts.getTerminatedQueue().add(busyProc);
+                this.sts.addTerminated(busyProc);
             } else {
-                CPU_Burst bst = (CPU_Burst) busyProc.job.getNextBurst();
-                int size = bst.getMemoryRequired();
-                if (size > this.getAvailableMemorySize()) {
+                busyProc.job.nextBurst();
+                int size = busyProc.job.getBurstMemoryRequired();
+                if (!this.allocateMemory(busyProc, size)) {
                     busyProc.memoryWait();
                     this.sts.getMemoryWaitQueue().add(busyProc);
                     this.sts.getMemoryAllocated().add(busyProc);
                 } else {
-                    this.allocateMemory(size);
                     busyProc.ready();
-                    this.sts.getReadyQueue().add(busyProc);
+                    this.sts.getMemoryAllocated().update(busyProc);
+                    this.sts.addToReadyQueue(busyProc);
                 }
             }
         }
 
+        if (this.mts != null) this.mts.complete();
         while (this.sts.allotMemory());
+        if (this.mts != null) this.mts.swapIn();
+        this.loadOnRelease();
 
-        Process proc = this.sts.dispatchToCPU();
-        runningProc = this.cpu.getRunningProcess();
-        if (runningProc != null && proc != null) {
-            int time = runningProc.getRemainingTime();
-            if (time > proc.getRemainingTime()) {
-                runningProc.preempt();
-                this.sts.getReadyQueue().add(runningProc);
-                proc.dispatch();
-                this.cpu.setRunningProcess(proc);
-            } else {
-                this.sts.getReadyQueue().add(proc);
+        for (CPU cpu : this.cpus) {
+            ProcessQueue readyQueue = this.sts.getReadyQueue(cpu.id);
+            Process proc = this.peekReady(readyQueue);
+            Process runningProc = cpu.getRunningProcess();
+            if (runningProc != null && proc != null) {
+                int used = cpu.getSliceTime();
+                if (this.cpuPolicy.shouldPreempt(runningProc, used, proc)) {
+                    runningProc.preempt();
+                    this.cpuPolicy.preempted(runningProc, used);
+                    readyQueue.add(runningProc);
+                    this.dispatch(cpu, readyQueue.remove());
+                }
+            } else if (runningProc == null && proc != null) {
+                readyQueue.remove();
+                this.dispatch(cpu, proc);
             }
-        } else if (runningProc == null && proc != null) {
-            proc.dispatch();
-            this.cpu.setRunningProcess(proc);
-        }
-
-        proc = this.sts.dispatchForIO();
-        busyProc = this.ioDevice.getBusyProcess();
-        if (busyProc != null && proc != null) {
-            int time = busyProc.getRemainingTime();
-            if (time > proc.getRemainingTime()) {
-                busyProc.preempt();
-                this.sts.getIOWaitQueue().add(busyProc);
-                this.ioDevice.setBusyProcess(proc);
-            } else {
-                this.sts.getIOWaitQueue().add(proc);
+        }
+        this.balance();
+        this.drainReadyQueues();
+
+        for (IO_Device device : this.ioDevices) {
+            ProcessQueue ioWaitQueue = this.sts.getIOWaitQueue(device.id);
+            Process proc = ioWaitQueue.peek();
+            Process busyProc = device.getBusyProcess();
+            if (busyProc != null && proc != null) {
+                int used = device.getSliceTime();
+                if (this.ioPolicy.shouldPreempt(busyProc, used, proc)) {
+                    busyProc.preempt();
+                    this.ioPolicy.preempted(busyProc, used);
+                    ioWaitQueue.add(busyProc);
+                    device.setBusyProcess(ioWaitQueue.remove());
+                }
+            } else if (busyProc == null && proc != null) {
+                ioWaitQueue.remove();
+                device.setBusyProcess(proc);
             }
-        } else if (busyProc == null && proc != null) {
-            this.ioDevice.setBusyProcess(proc);
         }
-        return true;
     }
 
     public void sleep(int time) {
@@ -206,6 +759,40 @@ public class ComputerSystem {
     }
 
     public double getCPUUtilization() {
-        return this.utilization / this.clock;
+        return this.utilization / this.clock / this.cpus.length;
+    }
+
+    public double getCPUUtilization(int core) {
+        return (double) this.cpus[core].getBusyTime() / this.clock;
+    }
+
+    void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.counter);
+        out.putInt(this.clock);
+        out.putDouble(this.utilization);
+        out.putBoolean(this.affinity);
+        out.putInt(this.migrationCost);
+        out.putInt(this.migrations);
+        out.putBoolean(this.retainProcesses);
+        out.putBoolean(this.admitOnRelease);
+        out.putLong(this.memoryTime);
+        out.putInt(this.loadInterval);
+        out.putInt(this.nextLoad);
+        out.putInt(this.kills);
+    }
+
+    void restore(CheckpointReader in) throws IOException {
+        this.counter = in.getInt();
+        this.clock = in.getInt();
+        this.utilization = in.getDouble();
+        this.affinity = in.getBoolean();
+        this.migrationCost = in.getInt();
+        this.migrations = in.getInt();
+        this.retainProcesses = in.getBoolean();
+        this.admitOnRelease = in.getBoolean();
+        this.memoryTime = in.getLong();
+        this.loadInterval = in.getInt();
+        this.nextLoad = in.getInt();
+        this.kills = in.getInt();
     }
 }
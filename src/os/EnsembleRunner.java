@@ -0,0 +1,113 @@
+
+package os;
+
+import os.job.Job;
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import java.util.Random;
+import java.util.LinkedList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.io.FileWriter;
+
+/**
+ * Runs many independent, seeded simulations in parallel and summarizes
+ * them with 95% confidence intervals.
+ *
+ * @author mnprtpsingh
+ */
+public class EnsembleRunner {
+    private final String[] args;
+    private final int runs;
+    private final long seed;
+
+    public EnsembleRunner(String[] args) {
+        this.args = args;
+        this.runs = MultiprogrammingOS.getOption(args, "--runs", 1000);
+        this.seed = MultiprogrammingOS.getOption(args, "--seed", 0);
+    }
+
+    public RunResult simulate(long runSeed) {
+        ComputerSystem system = MultiprogrammingOS.createSystem(this.args);
+        LinkedList<Job> jobs = MultiprogrammingOS.createJobs(system, new Random(runSeed));
+        MultiprogrammingOS.simulate(system, jobs, true);
+        return new RunResult(system);
+    }
+
+    private RunResult simulate(int run, long runSeed) {
+        try {
+            return this.simulate(runSeed);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Run " + run + " (seed " + runSeed + ") failed", e);
+        }
+    }
+
+    public Summary[] run(int threads) throws Exception {
+        long[] seeds = new long[this.runs];
+        SplittableRandom random = new SplittableRandom(this.seed);
+        for (int i = 0; i < this.runs; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        RunResult[] results = new RunResult[this.runs];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, this.runs).parallel()
+                    .forEach(i -> results[i] = this.simulate(i, seeds[i]))).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Summary utilization = new Summary("CPU Utilization");
+        Summary turnaround = new Summary("Mean Turnaround Time");
+        Summary killRate = new Summary("Kill Rate");
+        for (RunResult result : results) {
+            utilization.add(result.utilization);
+            turnaround.add(result.turnaround);
+            killRate.add(result.killRate);
+        }
+        return new Summary[] { utilization, turnaround, killRate };
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        EnsembleRunner runner = new EnsembleRunner(args);
+        int threads = MultiprogrammingOS.getOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        try {
+            Summary[] summaries = runner.run(threads);
+            FileWriter writer = new FileWriter("ensemble.txt");
+            writer.write("Number of Runs: " + Integer.toString(runner.runs));
+            writer.write(System.lineSeparator() + "Seed: " + Long.toString(runner.seed));
+            for (Summary summary : summaries) {
+                summary.displayStatistics(writer);
+            }
+            writer.close();
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            cause.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
+
+class RunResult {
+    final double utilization;
+    final double turnaround;
+    final double killRate;
+
+    RunResult(ComputerSystem system) {
+        ProcessTable table = system.getProcessTable();
+        int terminated = table.count(ProcessState.TERMINATED);
+        int killed = table.count(ProcessState.KILLED);
+
+        double time = table.sum(ProcessTable.COMPLETION_TIME, ProcessState.TERMINATED)
+                - table.sum(ProcessTable.ARRIVAL_TIME, ProcessState.TERMINATED);
+        this.utilization = system.getCPUUtilization();
+        this.turnaround = terminated == 0 ? 0 : time / terminated;
+        this.killRate = (double) killed / (killed + terminated);
+    }
+}
@@ -1,14 +1,45 @@
 
 package os;
 
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
 import os.process.Process;
+import java.io.IOException;
 
 /**
  *
  * @author mnprtpsingh
  */
 public class IO_Device {
+    public final int id;
+    public final String name;
+    public final int deviceClass;
+    private final double scale;
     private Process busyProcess;
+    private int busyTime;
+    private int sliceTime;
+    private long queueTime;
+    private int requests;
+
+    public IO_Device() {
+        this(0, "io", 0, 1.0);
+    }
+
+    /**
+     * @param scale factor applied to the length of every IO burst this
+     * device serves
+     */
+    public IO_Device(int id, String name, int deviceClass, double scale) {
+        if (scale <= 0) throw new IllegalArgumentException("Service time scale must be positive: " + scale);
+        this.id = id;
+        this.name = name;
+        this.deviceClass = deviceClass;
+        this.scale = scale;
+        this.busyTime = 0;
+        this.sliceTime = 0;
+        this.queueTime = 0;
+        this.requests = 0;
+    }
 
     public Process getBusyProcess() {
         return this.busyProcess;
@@ -16,5 +47,71 @@ public class IO_Device {
 
     public void setBusyProcess(Process proc) {
         this.busyProcess = proc;
+        this.sliceTime = 0;
+    }
+
+    public int getServiceTime(int time) {
+        if (this.scale == 1.0) return time;
+        return Math.max((int) Math.ceil(time * this.scale), 1);
+    }
+
+    public int getBusyTime() {
+        return this.busyTime;
+    }
+
+    public void addBusyTime(int time) {
+        this.busyTime += time;
+    }
+
+    public int getSliceTime() {
+        return this.sliceTime;
+    }
+
+    public void addSliceTime(int time) {
+        this.sliceTime += time;
+    }
+
+    public long getQueueTime() {
+        return this.queueTime;
+    }
+
+    public void addQueueTime(long time) {
+        this.queueTime += time;
+    }
+
+    public int getRequests() {
+        return this.requests;
+    }
+
+    public void addRequest() {
+        this.requests++;
+    }
+
+    /**
+     * @return the mean time a request spent waiting in this device's queue
+     */
+    public double getMeanQueueingDelay() {
+        return this.requests == 0 ? 0 : (double) this.queueTime / this.requests;
+    }
+
+    public double getScale() {
+        return this.scale;
+    }
+
+    /**
+     * Saves the counters; the busy process is saved by the caller.
+     */
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.busyTime);
+        out.putInt(this.sliceTime);
+        out.putLong(this.queueTime);
+        out.putInt(this.requests);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        this.busyTime = in.getInt();
+        this.sliceTime = in.getInt();
+        this.queueTime = in.getLong();
+        this.requests = in.getInt();
     }
 }
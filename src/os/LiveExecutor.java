@@ -0,0 +1,239 @@
+
+package os;
+
+import os.metrics.Histogram;
+import os.process.Process;
+import os.process.ProcessState;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the processes of a simulation for real. Every process gets a thread
+ * when it is first scheduled; a CPU burst runs a compute kernel calibrated
+ * to one tick of work per tick, and an IO burst blocks for the wall time
+ * of its ticks. The cores are a set of permits, and a thread only runs
+ * when the short-term scheduler has put its process on a CPU or an IO
+ * device. Each step of the simulation runs for real before the simulated
+ * clock moves on, so the measured wall time and dispatch latency can be
+ * compared with the simulated figures.
+ *
+ * @author mnprtpsingh
+ */
+public class LiveExecutor implements AutoCloseable {
+    private static final int CALIBRATION_ROUNDS = 5;
+    private static volatile long sink;
+
+    private final ComputerSystem system;
+    private final long tickNanos;
+    private final long iterationsPerTick;
+    private final Semaphore cores;
+    private final Semaphore completed;
+    private final HashMap<Process, Worker> workers;
+    private final Worker[] lastWorkers;
+    private final Worker[] stepWorkers;
+    private final Histogram dispatchLatency;
+    private long startTime;
+    private long wallTime;
+    private int threads;
+
+    private final class Worker extends Thread {
+        private final Semaphore permit;
+        private long ticks;
+        private boolean blocking;
+        private boolean dispatched;
+        private boolean stopped;
+        private long grantTime;
+        private long startTime;
+
+        Worker(Process proc) {
+            super("Process " + proc.pid);
+            this.permit = new Semaphore(0);
+            this.setDaemon(true);
+        }
+
+        void grant(long ticks, boolean blocking, boolean dispatched) {
+            this.ticks = ticks;
+            this.blocking = blocking;
+            this.dispatched = dispatched;
+            this.grantTime = System.nanoTime();
+            this.permit.release();
+        }
+
+        void finish() {
+            this.stopped = true;
+            this.permit.release();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                this.permit.acquireUninterruptibly();
+                if (this.stopped) return;
+                this.startTime = System.nanoTime();
+                if (this.blocking) {
+                    long deadline = this.startTime + this.ticks * LiveExecutor.this.tickNanos;
+                    for (long now = this.startTime; now < deadline; now = System.nanoTime()) {
+                        LockSupport.parkNanos(deadline - now);
+                    }
+                } else {
+                    LiveExecutor.this.cores.acquireUninterruptibly();
+                    compute(this.ticks * LiveExecutor.this.iterationsPerTick);
+                    LiveExecutor.this.cores.release();
+                }
+                LiveExecutor.this.completed.release();
+            }
+        }
+    }
+
+    /**
+     * @param tickMicros the wall time one tick of work should take
+     */
+    public LiveExecutor(ComputerSystem system, int tickMicros) {
+        if (tickMicros <= 0) throw new IllegalArgumentException("Tick length must be positive: " + tickMicros);
+        this.system = system;
+        this.tickNanos = tickMicros * 1000L;
+        this.iterationsPerTick = calibrate(this.tickNanos);
+        this.cores = new Semaphore(system.getNumberOfCores());
+        this.completed = new Semaphore(0);
+        this.workers = new HashMap<>();
+        this.lastWorkers = new Worker[system.getNumberOfCores()];
+        this.stepWorkers = new Worker[system.getNumberOfCores() + system.getNumberOfIODevices()];
+        this.dispatchLatency = new Histogram("Dispatch Latency (us)");
+        this.startTime = 0;
+        this.wallTime = 0;
+        this.threads = 0;
+    }
+
+    private static void compute(long iterations) {
+        long x = iterations | 1;
+        for (long i = 0; i < iterations; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        sink = x;
+    }
+
+    /**
+     * Measures the kernel once it has been compiled.
+     */
+    private static long calibrate(long tickNanos) {
+        long iterations = 1 << 20;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            compute(iterations);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            compute(iterations);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(iterations * tickNanos / Math.max(best, 1), 1);
+    }
+
+    public int getTickMicros() {
+        return (int) (this.tickNanos / 1000);
+    }
+
+    /**
+     * @return the wall time of the run so far in nanoseconds
+     */
+    public long getWallTime() {
+        return this.wallTime;
+    }
+
+    /**
+     * @return the wall time the simulated run would take in nanoseconds
+     */
+    public long getSimulatedTime() {
+        return this.system.getClock() * this.tickNanos;
+    }
+
+    public Histogram getDispatchLatency() {
+        return this.dispatchLatency;
+    }
+
+    /**
+     * @return the number of process threads started so far
+     */
+    public int getNumberOfThreads() {
+        return this.threads;
+    }
+
+    private Worker getWorker(Process proc) {
+        Worker worker = this.workers.get(proc);
+        if (worker == null) {
+            worker = new Worker(proc);
+            this.workers.put(proc, worker);
+            this.threads++;
+            worker.start();
+        }
+        return worker;
+    }
+
+    /**
+     * Runs the running and busy processes for the given ticks and waits
+     * until they are done.
+     */
+    void execute(int time) {
+        if (this.startTime == 0) this.startTime = System.nanoTime();
+        int granted = 0;
+        for (int i = 0; i < this.system.getNumberOfCores(); i++) {
+            CPU cpu = this.system.getCPU(i);
+            Process proc = cpu.getRunningProcess();
+            int runTime = Math.max(time - cpu.getStallTime(), 0);
+            if (proc == null || runTime == 0) {
+                this.lastWorkers[i] = null;
+                continue;
+            }
+            Worker worker = this.getWorker(proc);
+            worker.grant(runTime, false, worker != this.lastWorkers[i]);
+            this.lastWorkers[i] = worker;
+            this.stepWorkers[granted++] = worker;
+        }
+        for (int i = 0; i < this.system.getNumberOfIODevices(); i++) {
+            Process proc = this.system.getIODevice(i).getBusyProcess();
+            if (proc == null) continue;
+            Worker worker = this.getWorker(proc);
+            worker.grant(time, true, false);
+            this.stepWorkers[granted++] = worker;
+        }
+
+        if (granted == 0) {
+            LockSupport.parkNanos(time * this.tickNanos);
+        } else {
+            this.completed.acquireUninterruptibly(granted);
+        }
+        for (int i = 0; i < granted; i++) {
+            Worker worker = this.stepWorkers[i];
+            if (worker.dispatched) this.dispatchLatency.record((int) ((worker.startTime - worker.grantTime) / 1000));
+            this.stepWorkers[i] = null;
+        }
+        this.wallTime = System.nanoTime() - this.startTime;
+    }
+
+    /**
+     * Ends the threads of processes that have finished.
+     */
+    void release() {
+        Iterator<HashMap.Entry<Process, Worker>> iterator = this.workers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            HashMap.Entry<Process, Worker> entry = iterator.next();
+            ProcessState state = entry.getKey().getProcessState();
+            if (state == ProcessState.TERMINATED || state == ProcessState.KILLED) {
+                entry.getValue().finish();
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Worker worker : this.workers.values()) {
+            worker.finish();
+        }
+        this.workers.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package os;
+
+import os.job.Job;
+import os.metrics.Histogram;
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import os.workload.ExponentialDistribution;
+import os.workload.WorkloadGenerator;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Runs the same seeded workload as an open system at several offered
+ * loads and reports throughput against latency. Jobs arrive as a Poisson
+ * stream whose rate is set so that the CPU demand per tick is the given
+ * fraction of the cores.
+ *
+ * @author mnprtpsingh
+ */
+public class LoadSweep {
+    private final String[] args;
+    private final int jobs;
+    private final long seed;
+    private final double meanCPUTime;
+
+    public LoadSweep(String[] args) {
+        this.args = args;
+        this.jobs = MultiprogrammingOS.getOption(args, "--jobs", 10000);
+        this.seed = MultiprogrammingOS.getOption(args, "--seed", 0);
+        this.meanCPUTime = this.getMeanCPUTime();
+    }
+
+    private double getMeanCPUTime() {
+        ComputerSystem system = MultiprogrammingOS.createSystem(this.args);
+        WorkloadGenerator generator = MultiprogrammingOS.createWorkload(system, this.args, this.seed, this.jobs);
+        long time = 0;
+        for (Job job = generator.next(); job != null; job = generator.next()) {
+            time += job.totalCPUBurstTime;
+        }
+        return this.jobs == 0 ? 0 : (double) time / this.jobs;
+    }
+
+    public ComputerSystem simulate(double load) {
+        ComputerSystem system = MultiprogrammingOS.createSystem(this.args);
+        WorkloadGenerator generator = MultiprogrammingOS.createWorkload(system, this.args, this.seed, this.jobs);
+        generator.setInterarrival(new ExponentialDistribution(this.meanCPUTime / system.getNumberOfCores() / load));
+        MultiprogrammingOS.simulate(system, generator, true);
+        return system;
+    }
+
+    public void displayStatistics(FileWriter writer, double load, ComputerSystem system) throws IOException {
+        LongTermScheduler lts = system.getLongTermScheduler();
+        ProcessTable table = system.getProcessTable();
+        int terminated = table.count(ProcessState.TERMINATED);
+        double residence = table.sum(ProcessTable.COMPLETION_TIME, ProcessState.TERMINATED)
+                - table.sum(ProcessTable.ARRIVAL_TIME, ProcessState.TERMINATED);
+        Histogram delay = lts.getQueueingDelay();
+
+        String s = System.lineSeparator();
+        writer.write(s + s + "Load: " + Double.toString(load));
+        writer.write(s + "Offered Load (jobs per 1000 ticks): " + Double.toString(lts.getArrived() * 1000.0 / Math.max(lts.getLastArrival(), 1)));
+        writer.write(s + "Throughput (jobs per 1000 ticks): " + Double.toString(terminated * 1000.0 / system.getClock()));
+        writer.write(s + "CPU Utilization: " + Double.toString(system.getCPUUtilization()));
+        writer.write(s + "Mean Queueing Delay: " + Double.toString(delay.getMean()));
+        writer.write(s + "P99 Queueing Delay: " + Integer.toString(delay.getPercentile(0.99)));
+        writer.write(s + "Mean Time in System: " + Double.toString(delay.getMean() + (terminated == 0 ? 0 : residence / terminated)));
+        writer.write(s + "Killed Processes: " + Integer.toString(table.count(ProcessState.KILLED)));
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        LoadSweep sweep = new LoadSweep(args);
+        String[] loads = MultiprogrammingOS.getOption(args, "--loads", "0.5,0.7,0.8,0.9,0.95,1.0").split(",");
+        try {
+            FileWriter writer = new FileWriter("loads.txt");
+            writer.write("Number of Jobs: " + Integer.toString(sweep.jobs));
+            writer.write(System.lineSeparator() + "Seed: " + Long.toString(sweep.seed));
+            writer.write(System.lineSeparator() + "Mean CPU Time per Job: " + Double.toString(sweep.meanCPUTime));
+            for (String load : loads) {
+                double value = Double.parseDouble(load);
+                sweep.displayStatistics(writer, value, sweep.simulate(value));
+            }
+            writer.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
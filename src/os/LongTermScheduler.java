@@ -1,45 +1,427 @@
 
 package os;
 
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
 import os.job.Job;
+import os.job.JobSource;
+import os.job.ListJobSource;
+import os.metrics.Histogram;
+import os.process.Process;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.ListIterator;
+import java.io.IOException;
 
 /**
+ * Admits queued jobs while memory stays above the reserve. Jobs read from
+ * the source wait in a queue ordered by arrival time until the clock
+ * reaches their arrival, and only then join the admission queue. By default
+ * jobs are admitted strictly in order. With a packing window larger than
+ * one, the first window jobs are tried largest first, so a job that does
+ * not fit no longer blocks smaller ones behind it; once the job at the
+ * head has waited for the age bound, admission falls back to strict
+ * order until it gets in.
  *
  * @author mnprtpsingh
  */
 public class LongTermScheduler {
+    private static final int READ_AHEAD = 64;
+    private static final double RESERVE = 0.15;
+
     private final ComputerSystem system;
     private final LinkedList<Job> jobsQueue;
+    private final LinkedList<Job> arrivals;
+    private final Histogram queueingDelay;
+    private JobSource source;
+    private double reserve;
+    private int window;
+    private int maxAge;
+    private Job head;
+    private int headSince;
+    private int bypassed;
+    private boolean open;
+    private int arrived;
+    private int lastArrival;
+    private long queuedMemory;
 
     LongTermScheduler(ComputerSystem system) {
         this.system = system;
         this.jobsQueue = new LinkedList<>();
+        this.arrivals = new LinkedList<>();
+        this.queueingDelay = new Histogram("Queueing Delay");
+        this.source = null;
+        this.reserve = RESERVE;
+        this.window = 1;
+        this.maxAge = Integer.MAX_VALUE;
+        this.head = null;
+        this.headSince = 0;
+        this.bypassed = 0;
+        this.open = false;
+        this.arrived = 0;
+        this.lastArrival = 0;
+        this.queuedMemory = 0;
+    }
+
+    /**
+     * @param window number of queued jobs considered at each admission,
+     * 1 for strict order
+     * @param maxAge ticks the head job may wait before the others stop
+     * bypassing it
+     */
+    public void setPacking(int window, int maxAge) {
+        if (window < 1) throw new IllegalArgumentException("Admission window must be positive: " + window);
+        if (maxAge < 0) throw new IllegalArgumentException("Admission age bound must not be negative: " + maxAge);
+        this.window = window;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @return the share of RAM that must stay free after an admission
+     */
+    public double getReserve() {
+        return this.reserve;
+    }
+
+    public void setReserve(double reserve) {
+        if (!(reserve >= 0 && reserve < 1)) throw new IllegalArgumentException("Reserve must be in [0, 1): " + reserve);
+        this.reserve = reserve;
+    }
+
+    public int getWindow() {
+        return this.window;
+    }
+
+    /**
+     * @return the number of jobs admitted ahead of an older job
+     */
+    public int getBypassed() {
+        return this.bypassed;
+    }
+
+    /**
+     * @return the most memory a job can ask for and still be admitted,
+     * whatever reserve the admission controller picks
+     */
+    public int getMaxJobMemory() {
+        AdmissionController controller = this.system.getAdmissionController();
+        double reserve = controller == null ? this.reserve : Math.max(this.reserve, controller.getMaxReserve());
+        Pager pager = this.system.getPager();
+        int memory = pager == null ? this.system.getRAM() - this.system.getOSMemorySize() : pager.getCapacity();
+        return (int) (memory - reserve * this.system.getRAM());
+    }
+
+    /**
+     * Rejects a job that could never be admitted, which would otherwise
+     * wait at the head of the queue forever.
+     */
+    private void checkMemory(Job job) {
+        if (job.memoryRequired > this.getMaxJobMemory()) {
+            throw new IllegalArgumentException("Job needs more memory than the system can admit: "
+                    + job.memoryRequired + " > " + this.getMaxJobMemory());
+        }
+    }
+
+    /**
+     * @return whether any job arrived after tick 0
+     */
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * @return the number of jobs that have arrived
+     */
+    public int getArrived() {
+        return this.arrived;
+    }
+
+    public int getLastArrival() {
+        return this.lastArrival;
+    }
+
+    /**
+     * @return the ticks admitted jobs waited between arrival and admission
+     */
+    public Histogram getQueueingDelay() {
+        return this.queueingDelay;
     }
 
     public void addNewJobs(LinkedList<Job> jobs) {
         if (jobs.isEmpty()) return;
         this.jobsQueue.addAll(jobs);
+        this.queuedMemory += getMemory(jobs);
+    }
+
+    /**
+     * Keeps the arrival queue ordered by arrival time; jobs that arrive at
+     * the same tick stay in the order they were read.
+     */
+    private void addArrival(Job job) {
+        this.checkMemory(job);
+        ListIterator<Job> iterator = this.arrivals.listIterator(this.arrivals.size());
+        while (iterator.hasPrevious()) {
+            if (iterator.previous().arrivalTime <= job.arrivalTime) {
+                iterator.next();
+                break;
+            }
+        }
+        iterator.add(job);
+        this.queuedMemory += job.memoryRequired;
+    }
+
+    /**
+     * Moves every job whose arrival time has come to the admission queue,
+     * after reading ahead so the next arrival is known whatever the backlog.
+     *
+     * @return whether any job arrived
+     */
+    boolean arrive() {
+        this.readAhead();
+        int clock = this.system.getClock();
+        boolean arrived = false;
+        while (!this.arrivals.isEmpty() && this.arrivals.peek().arrivalTime <= clock) {
+            Job job = this.arrivals.remove();
+            if (job.arrivalTime > 0) this.open = true;
+            this.lastArrival = Math.max(this.lastArrival, job.arrivalTime);
+            this.arrived++;
+            this.jobsQueue.add(job);
+            arrived = true;
+            if (this.arrivals.isEmpty()) this.readAhead();
+        }
+        return arrived;
+    }
+
+    /**
+     * @return the ticks until the next known arrival
+     */
+    int getTimeToNextArrival() {
+        if (this.arrivals.isEmpty()) return Integer.MAX_VALUE;
+        return this.arrivals.peek().arrivalTime - this.system.getClock();
+    }
+
+    public void setJobSource(JobSource source) {
+        this.source = source;
+    }
+
+    /**
+     * @return whether the newest job read from the source arrived after
+     * tick 0 and has arrived already, so jobs after it may have arrived too
+     */
+    private boolean isReadBehind() {
+        if (this.arrivals.isEmpty()) return this.lastArrival > 0;
+        int arrivalTime = this.arrivals.getLast().arrivalTime;
+        return arrivalTime > 0 && arrivalTime <= this.system.getClock();
+    }
+
+    /**
+     * Reads a bounded number of jobs ahead, but keeps reading while an open
+     * workload's jobs have arrived, so the next arrival is always read and
+     * every arrival time is an event however long the backlog is.
+     */
+    private void readAhead() {
+        int limit = Math.max(READ_AHEAD, this.window);
+        while (this.source != null && (this.jobsQueue.size() + this.arrivals.size() < limit || this.isReadBehind())) {
+            Job job = this.source.next();
+            if (job == null) {
+                this.source = null;
+            } else {
+                this.addArrival(job);
+            }
+        }
     }
 
+    /**
+     * @return the queue of jobs that have arrived but are not admitted
+     */
+    LinkedList<Job> getPendingJobs() {
+        return this.jobsQueue;
+    }
+
+    LinkedList<Job> getArrivals() {
+        return this.arrivals;
+    }
+
+    /**
+     * Reads the rest of the job source and hands the jobs back to the
+     * scheduler as its new source, so the run goes on as if they had not
+     * been read.
+     *
+     * @return the jobs not read from the source yet
+     */
+    LinkedList<Job> getUnreadJobs() {
+        LinkedList<Job> jobs = new LinkedList<>();
+        if (this.source != null) {
+            for (Job job = this.source.next(); job != null; job = this.source.next()) {
+                jobs.add(job);
+            }
+            this.source = new ListJobSource(jobs);
+        }
+        return jobs;
+    }
+
+    void addArrivals(LinkedList<Job> jobs) {
+        this.arrivals.addAll(jobs);
+        this.queuedMemory += getMemory(jobs);
+    }
+
+    private static long getMemory(LinkedList<Job> jobs) {
+        long memory = 0;
+        for (Job job : jobs) {
+            memory += job.memoryRequired;
+        }
+        return memory;
+    }
+
+    /**
+     * Hands the scheduler a job from outside its job source; it joins the
+     * admission queue once the clock reaches its arrival time.
+     */
+    public void submit(Job job) {
+        this.addArrival(job);
+    }
+
+    /**
+     * @return the number of jobs that are queued or still to arrive
+     */
+    public int getQueuedJobs() {
+        return this.jobsQueue.size() + this.arrivals.size();
+    }
+
+    /**
+     * @return the memory the queued and arriving jobs ask for
+     */
+    public long getQueuedMemory() {
+        return this.queuedMemory;
+    }
+
+    /**
+     * @return whether any job is queued or still to arrive
+     */
     public boolean hasJob() {
-        return !this.jobsQueue.isEmpty();
+        if (this.jobsQueue.isEmpty()) this.arrive();
+        return !this.jobsQueue.isEmpty() || !this.arrivals.isEmpty();
     }
 
     public boolean loadJob() {
-        if (this.hasJob()) {
-            int availableMemory = this.system.getAvailableMemorySize();
-            int ram = this.system.getRAM();
-            Job job = this.jobsQueue.element();
-            int memoryRequired = job.memoryRequired;
-            if (availableMemory - memoryRequired >= 0.15 * ram) {
-                ShortTermScheduler sts = this.system.getShortTermScheduler();
-                sts.createProcess(job);
-                this.system.allocateMemory(memoryRequired);
-                this.jobsQueue.remove();
-                return true;
-            }
+        if (this.jobsQueue.isEmpty()) this.arrive();
+        if (!this.jobsQueue.isEmpty() && this.admit(this.jobsQueue.element())) {
+            this.jobsQueue.remove();
+            this.arrive();
+            return true;
         }
         return false;
     }
+
+    /**
+     * Admits as many queued jobs as fit. Nothing is admitted while
+     * processes are swapped out, so that they are brought back first.
+     *
+     * @return the number of jobs admitted
+     */
+    public int loadJobs() {
+        MediumTermScheduler mts = this.system.getMediumTermScheduler();
+        if (mts != null && mts.getNumberOfSwapped() > 0) return 0;
+        int admitted = 0;
+        if (this.window == 1 || this.getHeadAge() >= this.maxAge) {
+            while (this.loadJob()) admitted++;
+        } else if (this.hasJob()) {
+            admitted = this.pack();
+        }
+        this.getHeadAge();
+        return admitted;
+    }
+
+    private int getHeadAge() {
+        Job job = this.jobsQueue.peek();
+        if (job != this.head) {
+            this.head = job;
+            this.headSince = this.system.getClock();
+        }
+        return this.system.getClock() - this.headSince;
+    }
+
+    /**
+     * First-fit decreasing over the window: takes the first window jobs
+     * off the queue, admits each that fits from the largest down and puts
+     * the rest back in their original order.
+     */
+    private int pack() {
+        this.arrive();
+        int n = Math.min(this.window, this.jobsQueue.size());
+        Job[] candidates = new Job[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            candidates[i] = this.jobsQueue.remove();
+            order[i] = i;
+        }
+        Arrays.sort(order, (i, j) -> candidates[i].memoryRequired != candidates[j].memoryRequired
+                ? Integer.compare(candidates[j].memoryRequired, candidates[i].memoryRequired)
+                : Integer.compare(i, j));
+
+        int admitted = 0;
+        for (int i : order) {
+            if (this.admit(candidates[i])) {
+                candidates[i] = null;
+                admitted++;
+            }
+        }
+        boolean waiting = false;
+        for (Job job : candidates) {
+            if (job != null) waiting = true;
+            else if (waiting) this.bypassed++;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            if (candidates[i] != null) this.jobsQueue.addFirst(candidates[i]);
+        }
+        this.arrive();
+        return admitted;
+    }
+
+    private boolean admit(Job job) {
+        int memoryRequired = job.memoryRequired;
+        if (this.system.getAvailableMemorySize() - memoryRequired < this.reserve * this.system.getRAM()) return false;
+        Pager pager = this.system.getPager();
+        if (pager != null) {
+            pager.create(this.system.getShortTermScheduler().createProcess(job), memoryRequired);
+            this.queueingDelay.record(this.system.getClock() - job.arrivalTime);
+            this.queuedMemory -= memoryRequired;
+            return true;
+        }
+        int address = this.system.getMemoryManager().allocate(memoryRequired);
+        if (address < 0) return false;
+        Process proc = this.system.getShortTermScheduler().createProcess(job);
+        proc.addRegion(address, memoryRequired);
+        this.queueingDelay.record(this.system.getClock() - job.arrivalTime);
+        this.queuedMemory -= memoryRequired;
+        return true;
+    }
+
+    void save(CheckpointWriter out) throws IOException {
+        out.putDouble(this.reserve);
+        out.putInt(this.window);
+        out.putInt(this.maxAge);
+        out.putInt(this.headSince);
+        out.putInt(this.bypassed);
+        out.putBoolean(this.open);
+        out.putInt(this.arrived);
+        out.putInt(this.lastArrival);
+        this.queueingDelay.save(out);
+    }
+
+    /**
+     * Must be called after the pending jobs are queued.
+     */
+    void restore(CheckpointReader in) throws IOException {
+        this.reserve = in.getDouble();
+        this.window = in.getInt();
+        this.maxAge = in.getInt();
+        this.headSince = in.getInt();
+        this.bypassed = in.getInt();
+        this.open = in.getBoolean();
+        this.arrived = in.getInt();
+        this.lastArrival = in.getInt();
+        this.queueingDelay.restore(in);
+        this.head = this.jobsQueue.peek();
+    }
 }
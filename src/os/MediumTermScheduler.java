@@ -0,0 +1,246 @@
+
+package os;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.memory.BackingStore;
+import os.process.Process;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.io.IOException;
+
+/**
+ * Swaps processes out to a backing store when every process is waiting
+ * for memory, instead of killing them. One transfer runs at a time and
+ * takes one tick per rate memory units; a swapped-out process gives up
+ * its memory when its transfer completes, and swapped-out processes are
+ * brought back in order once their memory and pending request fit.
+ *
+ * @author mnprtpsingh
+ */
+public class MediumTermScheduler {
+    private final ComputerSystem system;
+    private final BackingStore store;
+    private final int rate;
+    private final ArrayDeque<Process> swapped;
+    private int[] addresses;
+    private int[] sizes;
+    private Process transfer;
+    private boolean swappingIn;
+    private int remainingTime;
+    private int swapOuts;
+    private int swapIns;
+    private long swapTime;
+
+    MediumTermScheduler(ComputerSystem system, BackingStore store, int rate) {
+        if (rate <= 0) throw new IllegalArgumentException("Swap rate must be positive: " + rate);
+        this.system = system;
+        this.store = store;
+        this.rate = rate;
+        this.swapped = new ArrayDeque<>();
+        this.addresses = new int[1024];
+        this.sizes = new int[1024];
+        this.transfer = null;
+        this.swappingIn = false;
+        this.remainingTime = 0;
+        this.swapOuts = 0;
+        this.swapIns = 0;
+        this.swapTime = 0;
+    }
+
+    public BackingStore getBackingStore() {
+        return this.store;
+    }
+
+    public int getRate() {
+        return this.rate;
+    }
+
+    public int getSwapOuts() {
+        return this.swapOuts;
+    }
+
+    public int getSwapIns() {
+        return this.swapIns;
+    }
+
+    public long getSwapTime() {
+        return this.swapTime;
+    }
+
+    public int getNumberOfSwapped() {
+        return this.swapped.size();
+    }
+
+    public boolean isBusy() {
+        return this.transfer != null;
+    }
+
+    public boolean isEmpty() {
+        return this.transfer == null && this.swapped.isEmpty();
+    }
+
+    public int getTimeToNextEvent() {
+        return this.transfer == null ? Integer.MAX_VALUE : this.remainingTime;
+    }
+
+    private int getTransferTime(int size) {
+        return Math.max((size + this.rate - 1) / this.rate, 1);
+    }
+
+    private void setImage(Process proc, int address, int size) {
+        int slot = proc.getSlot();
+        if (slot >= this.addresses.length) {
+            int length = Math.max(slot + 1, this.addresses.length * 2);
+            this.addresses = Arrays.copyOf(this.addresses, length);
+            this.sizes = Arrays.copyOf(this.sizes, length);
+        }
+        this.addresses[slot] = address;
+        this.sizes[slot] = size;
+    }
+
+    void advance(int time) {
+        if (this.transfer == null) return;
+        this.remainingTime -= Math.min(time, this.remainingTime);
+        this.swapTime += time;
+    }
+
+    /**
+     * Starts swapping out a process that has been taken off the memory
+     * queues.
+     *
+     * @return false if the process holds no memory or the store is full
+     */
+    boolean swapOut(Process proc) {
+        if (this.transfer != null) return false;
+        int size = 0;
+        for (int i = 0; i < proc.getNumberOfRegions(); i++) {
+            size += proc.getRegionSize(i);
+        }
+        if (size == 0) return false;
+        int address = this.store.write(proc.pid, size);
+        if (address < 0) return false;
+        this.setImage(proc, address, size);
+        proc.swapOut();
+        this.transfer = proc;
+        this.swappingIn = false;
+        this.remainingTime = this.getTransferTime(size);
+        this.swapOuts++;
+        return true;
+    }
+
+    /**
+     * Starts swapping in the oldest swapped-out process if its memory and
+     * its pending request both fit.
+     */
+    boolean swapIn() {
+        Process proc = this.swapped.peek();
+        if (this.transfer != null || proc == null) return false;
+        int size = this.sizes[proc.getSlot()];
+        int request = Math.max(proc.job.getBurstMemoryRequired(), 0);
+        if (this.system.getAvailableMemorySize() < size + request) return false;
+        int address = this.system.getMemoryManager().allocate(size);
+        if (address < 0) return false;
+        proc.addRegion(address, size);
+        this.swapped.remove();
+        this.transfer = proc;
+        this.swappingIn = true;
+        this.remainingTime = this.getTransferTime(size);
+        this.swapIns++;
+        return true;
+    }
+
+    /**
+     * Removes the oldest swapped-out process, which can never be brought
+     * back, and releases its image.
+     */
+    Process evict() {
+        Process proc = this.swapped.poll();
+        if (proc != null) {
+            int slot = proc.getSlot();
+            this.store.read(this.addresses[slot], proc.pid, this.sizes[slot]);
+        }
+        return proc;
+    }
+
+    /**
+     * Finishes the current transfer if it is done.
+     */
+    void complete() {
+        if (this.transfer == null || this.remainingTime > 0) return;
+        Process proc = this.transfer;
+        this.transfer = null;
+        if (this.swappingIn) {
+            int slot = proc.getSlot();
+            this.store.read(this.addresses[slot], proc.pid, this.sizes[slot]);
+            proc.swapIn();
+            ShortTermScheduler sts = this.system.getShortTermScheduler();
+            sts.getMemoryWaitQueue().add(proc);
+            sts.getMemoryAllocated().add(proc);
+        } else {
+            this.system.freeMemory(proc);
+            this.swapped.add(proc);
+        }
+    }
+
+    Process getTransfer() {
+        return this.transfer;
+    }
+
+    Iterable<Process> getSwapped() {
+        return this.swapped;
+    }
+
+    /**
+     * Saves the counters, images and transfer; processes are referenced by
+     * slot and saved by the caller.
+     */
+    void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.swapOuts);
+        out.putInt(this.swapIns);
+        out.putLong(this.swapTime);
+        this.store.save(out);
+        out.putInt(this.swapped.size());
+        for (Process proc : this.swapped) {
+            this.saveImage(out, proc);
+        }
+        out.putBoolean(this.transfer != null);
+        if (this.transfer != null) {
+            this.saveImage(out, this.transfer);
+            out.putBoolean(this.swappingIn);
+            out.putInt(this.remainingTime);
+        }
+    }
+
+    private void saveImage(CheckpointWriter out, Process proc) throws IOException {
+        int slot = proc.getSlot();
+        out.putInt(slot);
+        out.putInt(this.addresses[slot]);
+        out.putInt(this.sizes[slot]);
+    }
+
+    void restore(CheckpointReader in, Process[] procs) throws IOException {
+        this.swapOuts = in.getInt();
+        this.swapIns = in.getInt();
+        this.swapTime = in.getLong();
+        this.store.restore(in);
+        int n = in.getInt();
+        for (int i = 0; i < n; i++) {
+            this.swapped.add(this.restoreImage(in, procs));
+        }
+        if (in.getBoolean()) {
+            this.transfer = this.restoreImage(in, procs);
+            this.swappingIn = in.getBoolean();
+            this.remainingTime = in.getInt();
+        }
+    }
+
+    private Process restoreImage(CheckpointReader in, Process[] procs) throws IOException {
+        Process proc = procs[in.getInt()];
+        int address = in.getInt();
+        int size = in.getInt();
+        this.setImage(proc, address, size);
+        this.store.rewrite(address, proc.pid, size);
+        return proc;
+    }
+}
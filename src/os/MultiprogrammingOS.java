@@ -2,13 +2,27 @@
 package os;
 
 import os.job.*;
+import os.journal.EventJournal;
+import os.journal.JournalReplay;
 import os.process.Process;
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import os.memory.BackingStore;
+import os.memory.MemoryManager;
+import os.memory.ReplacementPolicy;
+import os.metrics.Histogram;
+import os.metrics.Metrics;
+import os.policy.SchedulingPolicy;
+import os.report.ResultSink;
+import os.timeline.TimelineWriter;
+import os.workload.Distribution;
+import os.workload.WorkloadGenerator;
 import java.util.Random;
 import java.util.LinkedList;
 import java.util.ArrayList;
-import java.util.ListIterator;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  *
@@ -26,73 +40,449 @@ public class MultiprogrammingOS {
         return new IO_Burst(bstTime, BurstType.IO_BURST);
     }
 
+    public static Burst createIOBurst(Random random, int deviceClasses) {
+        if (deviceClasses <= 1) return createIOBurst(random);
+        int bstTime = 20 + random.nextInt(41);
+        return new IO_Burst(bstTime, BurstType.IO_BURST, random.nextInt(deviceClasses));
+    }
+
     public static LinkedList<Job> createJobs(ComputerSystem system) {
+        return createJobs(system, new Random());
+    }
+
+    public static LinkedList<Job> createJobs(ComputerSystem system, Random random) {
         LinkedList<Job> jobs = new LinkedList<>();
-        Random random = new Random();
         int numerOfJobs = 5 + random.nextInt(10);
         for (int i = 0; i < numerOfJobs; i++) {
-            int numberOfBurst = 1 + random.nextInt(10);
-            ArrayList<Burst> bursts = new ArrayList<>();
-            int memReq = 5 + random.nextInt(196);
-            bursts.add(createCPUBurst(random, memReq));
-            int memAlloc = memReq;
-            for (int j = 1; j < numberOfBurst; j++) {
-                if (j % 2 == 0) {
-                    if (random.nextBoolean()) {
-                        memReq = - random.nextInt(memAlloc);
-                    } else {
-                        memReq = random.nextInt(41);
-                    }
-                    bursts.add(createCPUBurst(random, memReq));
-                    memAlloc += memReq;
+            jobs.add(createJob(random, numerOfJobs, system.getNumberOfDeviceClasses()));
+        }
+        return jobs;
+    }
+
+    public static Job createJob(Random random, int numerOfJobs) {
+        return createJob(random, numerOfJobs, 1);
+    }
+
+    public static Job createJob(Random random, int numerOfJobs, int deviceClasses) {
+        int numberOfBurst = 1 + random.nextInt(10);
+        ArrayList<Burst> bursts = new ArrayList<>();
+        int memReq = 5 + random.nextInt(196);
+        bursts.add(createCPUBurst(random, memReq));
+        int memAlloc = memReq;
+        for (int j = 1; j < numberOfBurst; j++) {
+            if (j % 2 == 0) {
+                if (random.nextBoolean()) {
+                    memReq = - random.nextInt(memAlloc);
                 } else {
-                    bursts.add(createIOBurst(random));
+                    memReq = random.nextInt(41);
                 }
+                bursts.add(createCPUBurst(random, memReq));
+                memAlloc += memReq;
+            } else {
+                bursts.add(createIOBurst(random, deviceClasses));
             }
-            String name = "Program " + Integer.toString(random.nextInt(numerOfJobs));
-            jobs.add(new Job(name, bursts));
         }
-        return jobs;
+        String name = "Program " + Integer.toString(random.nextInt(numerOfJobs));
+        return new Job(name, bursts);
     }
-    
-    
+
+    public static WorkloadGenerator createWorkload(ComputerSystem system, String[] args, long seed, int numberOfJobs) {
+        WorkloadGenerator generator = new WorkloadGenerator(seed, numberOfJobs);
+        generator.setDeviceClasses(system.getNumberOfDeviceClasses());
+        generator.setMemoryLimit(system.getLongTermScheduler().getMaxJobMemory());
+        String interarrival = getOption(args, "--interarrival", null);
+        if (interarrival != null) generator.setInterarrival(Distribution.create(interarrival));
+        String bursts = getOption(args, "--bursts", null);
+        if (bursts != null) generator.setBursts(Distribution.create(bursts));
+        String cpuBurst = getOption(args, "--cpu-burst", null);
+        if (cpuBurst != null) generator.setCPUBurst(Distribution.create(cpuBurst));
+        String ioBurst = getOption(args, "--io-burst", null);
+        if (ioBurst != null) generator.setIOBurst(Distribution.create(ioBurst));
+        String memory = getOption(args, "--job-memory", null);
+        if (memory != null) generator.setMemory(Distribution.create(memory));
+        String growth = getOption(args, "--memory-growth", null);
+        if (growth != null) generator.setGrowth(Distribution.create(growth));
+        return generator;
+    }
+
+    public static boolean hasOption(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) return true;
+        }
+        return false;
+    }
+
+    public static int getOption(String[] args, String name, int value) {
+        String prefix = name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return Integer.parseInt(arg.substring(prefix.length()));
+        }
+        return value;
+    }
+
+    public static String getOption(String[] args, String name, String value) {
+        String prefix = name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        }
+        return value;
+    }
+
     /**
-     * @param args the command line arguments
+     * Parses a comma-separated list of devices written as name[:scale].
+     * Devices with the same name form one device class, numbered in order
+     * of first appearance.
      */
-    @SuppressWarnings("empty-statement")
-    public static void main(String[] args) {
-        ComputerSystem system = new ComputerSystem(1024, 320);
+    public static IO_Device[] createDevices(String spec) {
+        String[] entries = spec.split(",");
+        IO_Device[] devices = new IO_Device[entries.length];
+        ArrayList<String> classes = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].split(":");
+            double scale = parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0;
+            if (!classes.contains(parts[0])) classes.add(parts[0]);
+            devices[i] = new IO_Device(i, parts[0], classes.indexOf(parts[0]), scale);
+        }
+        return devices;
+    }
+
+    public static ComputerSystem createSystem(String[] args) {
+        int ram = getOption(args, "--ram", 1024);
+        int cores = getOption(args, "--cores", 1);
+        String allocator = getOption(args, "--allocator", "pooled");
+        ComputerSystem system = new ComputerSystem(ram, 320, cores, allocator);
+        system.setAffinity(hasOption(args, "--affinity"));
+        system.setMigrationCost(getOption(args, "--migration-cost", 0));
+        system.setRetainProcesses(!hasOption(args, "--process-table"));
+        system.setAdmitOnRelease(hasOption(args, "--admit-on-release"));
+        system.getLongTermScheduler().setPacking(getOption(args, "--admission-window", 1),
+                getOption(args, "--admission-age", Integer.MAX_VALUE));
+        int quantum = getOption(args, "--quantum", SchedulingPolicy.DEFAULT_QUANTUM);
+        SchedulingPolicy cpuPolicy = SchedulingPolicy.create(getOption(args, "--policy", "srtf"), quantum);
+        SchedulingPolicy ioPolicy = SchedulingPolicy.create(getOption(args, "--io-policy", "srtf"), quantum);
+        system.setSchedulingPolicy(cpuPolicy, ioPolicy);
+        String devices = getOption(args, "--devices", null);
+        if (devices != null) system.setIODevices(createDevices(devices));
+        if (hasOption(args, "--metrics")) system.setMetrics(new Metrics(getOption(args, "--metrics-interval", 10)));
+        if (hasOption(args, "--adaptive-admission")) {
+            String[] reserve = getOption(args, "--reserve-range", "0.05:0.3").split(":");
+            String[] interval = getOption(args, "--load-interval-range", "50:800").split(":");
+            system.setAdmissionController(new AdmissionController(system,
+                    Double.parseDouble(getOption(args, "--target-utilization", "0.9")),
+                    Double.parseDouble(reserve[0]), Double.parseDouble(reserve[1]),
+                    Integer.parseInt(interval[0]), Integer.parseInt(interval[1]),
+                    getOption(args, "--control-period", 1000)));
+        }
+        if (hasOption(args, "--paging")) {
+            system.setPager(new Pager(system, getOption(args, "--page-size", 4),
+                    ReplacementPolicy.create(getOption(args, "--page-policy", "clock")), getOption(args, "--tlb", 16),
+                    Double.parseDouble(getOption(args, "--working-set", "0.5")), getOption(args, "--fault-time", 8),
+                    getOption(args, "--paging-device", 0), Double.parseDouble(getOption(args, "--overcommit", "2"))));
+        }
+        return system;
+    }
+
+    public static void simulate(ComputerSystem system, LinkedList<Job> jobs, boolean eventDriven) {
+        simulate(system, new ListJobSource(jobs), eventDriven);
+    }
+
+    public static void simulate(ComputerSystem system, JobSource source, boolean eventDriven) {
+        start(system, source);
+        run(system, eventDriven, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs until the given clock and, if given, saves a checkpoint there
+     * before running to completion.
+     */
+    public static void simulate(ComputerSystem system, JobSource source, boolean eventDriven,
+            Path checkpoint, int checkpointAt) throws IOException {
+        start(system, source);
+        if (checkpoint != null) checkpoint(system, eventDriven, checkpoint, checkpointAt);
+        run(system, eventDriven, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs until the given clock and saves a checkpoint there. A run that
+     * ends first is reported instead, since there is no state to save.
+     */
+    public static void checkpoint(ComputerSystem system, boolean eventDriven, Path checkpoint, int checkpointAt)
+            throws IOException {
+        if (run(system, eventDriven, checkpointAt)) {
+            Checkpoint.save(system, checkpoint);
+        } else {
+            System.out.println("The run ended at tick " + system.getClock() + ", before --checkpoint-at="
+                    + checkpointAt + "; no checkpoint was written to " + checkpoint);
+        }
+    }
+
+    public static void start(ComputerSystem system, JobSource source) {
         LongTermScheduler lts = system.getLongTermScheduler();
-        LinkedList<Job> jobs = createJobs(system);
-        lts.addNewJobs(jobs);
+        lts.setJobSource(source);
 
-        while (lts.loadJob());
+        lts.loadJobs();
         system.sleep(100);
         system.dispatch();
-        while (system.run());
+    }
+
+    /**
+     * Runs until the clock reaches the given time, stopping at the first
+     * event at or after it in event-driven mode.
+     *
+     * @return false if the simulation finished first
+     */
+    public static boolean run(ComputerSystem system, boolean eventDriven, int until) {
+        while (system.getClock() < until) {
+            if (!(eventDriven ? system.runToNextEvent() : system.run())) return false;
+        }
+        return true;
+    }
+    
+    
+    public static void writeResults(ComputerSystem system, ResultSink sink) throws IOException {
+        ShortTermScheduler sts = system.getShortTermScheduler();
+        ProcessTable table = system.getProcessTable();
+        sink.begin(table.count(ProcessState.KILLED) + table.count(ProcessState.TERMINATED));
+
+        if (system.retainsProcesses()) {
+            for (Process proc : sts.getKilledQueue()) {
+                sink.process(table, proc.getSlot());
+            }
+            for (Process proc : sts.getTerminatedQueue()) {
+                sink.process(table, proc.getSlot());
+            }
+        } else {
+            for (int slot = 0; slot < table.size(); slot++) {
+                if (table.getState(slot) == ProcessState.KILLED) sink.process(table, slot);
+            }
+            for (int slot = 0; slot < table.size(); slot++) {
+                if (table.getState(slot) == ProcessState.TERMINATED) sink.process(table, slot);
+            }
+        }
+
+        sink.section();
+        sink.metric("CPU Utilization", system.getCPUUtilization());
+        if (system.getNumberOfCores() > 1) {
+            for (int i = 0; i < system.getNumberOfCores(); i++) {
+                sink.metric("Core " + Integer.toString(i) + " Utilization", system.getCPUUtilization(i));
+            }
+            sink.metric("Number of Migrations", system.getMigrations());
+        }
+        if (system.getLongTermScheduler().getWindow() > 1) {
+            sink.metric("Jobs Admitted Out of Order", system.getLongTermScheduler().getBypassed());
+        }
+        if (system.getNumberOfIODevices() > 1) {
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                IO_Device device = system.getIODevice(i);
+                String name = "Device " + Integer.toString(i) + " (" + device.name + ")";
+                sink.metric(name + " Utilization", (double) device.getBusyTime() / system.getClock());
+                sink.metric(name + " Requests", device.getRequests());
+                sink.metric(name + " Mean Queueing Delay", device.getMeanQueueingDelay());
+            }
+        }
+
+        LongTermScheduler lts = system.getLongTermScheduler();
+        if (lts.isOpen()) {
+            sink.section();
+            int terminated = table.count(ProcessState.TERMINATED);
+            double residence = table.sum(ProcessTable.COMPLETION_TIME, ProcessState.TERMINATED)
+                    - table.sum(ProcessTable.ARRIVAL_TIME, ProcessState.TERMINATED);
+            Histogram delay = lts.getQueueingDelay();
+            sink.metric("Jobs Arrived", lts.getArrived());
+            sink.metric("Offered Load (jobs per 1000 ticks)", lts.getArrived() * 1000.0 / Math.max(lts.getLastArrival(), 1));
+            sink.metric("Throughput (jobs per 1000 ticks)", terminated * 1000.0 / system.getClock());
+            sink.metric(delay.getName() + " Mean", delay.getMean());
+            sink.metric(delay.getName() + " P99", delay.getPercentile(0.99));
+            sink.metric(delay.getName() + " Max", delay.getMax());
+            sink.metric("Mean Time in System", delay.getMean() + (terminated == 0 ? 0 : residence / terminated));
+        }
+
+        AdmissionController controller = system.getAdmissionController();
+        if (controller != null) {
+            sink.section();
+            sink.metric("Target Utilization", controller.getTarget());
+            sink.metric("Controller Decisions", controller.getDecisions());
+            sink.metric("Controller Adjustments", controller.getAdjustments());
+            sink.metric("Final Reserve", lts.getReserve());
+            sink.metric("Final Load Interval", system.getLoadInterval());
+            sink.metric("Deadlock Kills", system.getKills());
+        }
+
+        MemoryManager memory = system.getMemoryManager();
+        if (!memory.getName().equals("pooled")) {
+            sink.section();
+            sink.metric("Memory Allocator", memory.getName());
+            sink.metric("Allocations", memory.getAllocations());
+            sink.metric("Failed Allocations", memory.getFailedAllocations());
+            sink.metric("Mean External Fragmentation", memory.getMeanFragmentation());
+            sink.metric("Peak External Fragmentation", memory.getPeakFragmentation());
+            sink.metric("Largest Free Block", memory.getLargestFreeBlock());
+        }
+
+        MediumTermScheduler mts = system.getMediumTermScheduler();
+        if (mts != null) {
+            sink.section();
+            sink.metric("Swap Outs", mts.getSwapOuts());
+            sink.metric("Swap Ins", mts.getSwapIns());
+            sink.metric("Swap Time", mts.getSwapTime());
+        }
+
+        Pager pager = system.getPager();
+        if (pager != null) {
+            sink.section();
+            sink.metric("Page Size", pager.getPageSize());
+            sink.metric("Frames", pager.getNumberOfFrames());
+            sink.metric("Replacement Policy", pager.getPolicy().getName());
+            sink.metric("References", pager.getReferences());
+            sink.metric("Zero-Fill Faults", pager.getZeroFills());
+            sink.metric("Page Faults", pager.getPageFaults());
+            sink.metric("Fault Rate (per 1000 references)", pager.getPageFaults() * 1000.0 / Math.max(pager.getReferences(), 1));
+            sink.metric("Pages Evicted", pager.getEvictions());
+            sink.metric("TLB Hit Rate", (double) pager.getTlbHits() / Math.max(pager.getReferences(), 1));
+            sink.metric("Paging Time", pager.getPageFaults() * pager.getFaultTime());
+            sink.metric("Thrashing Windows", pager.getThrashingWindows());
+            sink.metric("Thrashing Share", (double) pager.getThrashingWindows() / Math.max(pager.getWindows(), 1));
+        }
+
+        LiveExecutor executor = system.getLiveExecutor();
+        if (executor != null) {
+            sink.section();
+            int terminated = table.count(ProcessState.TERMINATED);
+            Histogram latency = executor.getDispatchLatency();
+            sink.metric("Tick Length (us)", executor.getTickMicros());
+            sink.metric("Process Threads", executor.getNumberOfThreads());
+            sink.metric("Simulated Time (ms)", executor.getSimulatedTime() / 1e6);
+            sink.metric("Wall Time (ms)", executor.getWallTime() / 1e6);
+            sink.metric("Simulated Throughput (jobs per s)", terminated * 1e9 / executor.getSimulatedTime());
+            sink.metric("Measured Throughput (jobs per s)", terminated * 1e9 / executor.getWallTime());
+            sink.metric(latency.getName() + " Mean", latency.getMean());
+            sink.metric(latency.getName() + " P50", latency.getPercentile(0.50));
+            sink.metric(latency.getName() + " P99", latency.getPercentile(0.99));
+            sink.metric(latency.getName() + " Max", latency.getMax());
+        }
+
+        Metrics metrics = system.getMetrics();
+        if (metrics != null) {
+            sink.section();
+            long ioBusyTime = 0;
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                ioBusyTime += system.getIODevice(i).getBusyTime();
+            }
+            sink.metric("IO Utilization", (double) ioBusyTime / system.getClock() / system.getNumberOfIODevices());
+            sink.metric("Mean Memory Occupancy", system.getMemoryOccupancy());
+            for (Histogram histogram : metrics.getHistograms()) {
+                sink.metric(histogram.getName() + " Mean", histogram.getMean());
+                sink.metric(histogram.getName() + " P50", histogram.getPercentile(0.50));
+                sink.metric(histogram.getName() + " P99", histogram.getPercentile(0.99));
+                sink.metric(histogram.getName() + " P999", histogram.getPercentile(0.999));
+                sink.metric(histogram.getName() + " Max", histogram.getMax());
+            }
+        }
+    }
+
+    /**
+     * Writes the per-process statistics and CPU utilization rebuilt from an
+     * event journal.
+     */
+    public static void writeResults(JournalReplay replay, ResultSink sink) throws IOException {
+        ProcessTable table = replay.getProcessTable();
+        sink.begin(table.count(ProcessState.KILLED) + table.count(ProcessState.TERMINATED));
+        for (int slot = 0; slot < table.size(); slot++) {
+            if (table.getState(slot) == ProcessState.KILLED) sink.process(table, slot);
+        }
+        for (int slot = 0; slot < table.size(); slot++) {
+            if (table.getState(slot) == ProcessState.TERMINATED) sink.process(table, slot);
+        }
+
+        sink.section();
+        sink.metric("CPU Utilization", replay.getCPUUtilization());
+        if (replay.getNumberOfCores() > 1) {
+            for (int i = 0; i < replay.getNumberOfCores(); i++) {
+                sink.metric("Core " + Integer.toString(i) + " Utilization", replay.getCPUUtilization(i));
+            }
+        }
+        sink.section();
+        sink.metric("Seed", replay.getSeed());
+        sink.metric("Journal Records", replay.getRecords());
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        ComputerSystem system = createSystem(args);
+        String trace = getOption(args, "--trace", null);
+        int numberOfJobs = getOption(args, "--jobs", 0);
+        long seed = Long.parseLong(getOption(args, "--seed", Long.toString(new Random().nextLong())));
+        String replay = getOption(args, "--replay", null);
+        String restore = getOption(args, "--restore", null);
+        String checkpointOption = getOption(args, "--checkpoint", null);
+        Path checkpoint = checkpointOption == null ? null : Paths.get(checkpointOption);
+        int checkpointAt = getOption(args, "--checkpoint-at", 0);
+        String format = getOption(args, "--output-format", "text");
+        String output = getOption(args, "--output", format.equals("text") ? "output.txt" : "output." + (format.equals("csv") ? "csv" : "bin"));
 
-        FileWriter writer;
         try {
-            writer = new FileWriter("output.txt");
-            writer.write("Number of Process: " + Integer.toString(jobs.size()));
-
-            ShortTermScheduler sts = system.getShortTermScheduler();
-            LinkedList<Process> killed = sts.getKilledQueue();
-            ListIterator<Process> itr = killed.listIterator();
-            while (itr.hasNext()) {
-                Process proc = itr.next();
-                proc.displayStatistics(writer);
-            }
-
-            LinkedList<Process> terminated = sts.getTerminatedQueue();
-            itr = terminated.listIterator();
-            while (itr.hasNext()) {
-                Process proc = itr.next();
-                proc.displayStatistics(writer);
-            }
-            String s = System.lineSeparator();
-            writer.write(s + s + "CPU Utilization: " + Double.toString(system.getCPUUtilization()));
-            writer.close();
+            if (replay != null) {
+                JournalReplay journal = JournalReplay.load(Paths.get(replay));
+                try (ResultSink sink = ResultSink.create(format, Paths.get(output), hasOption(args, "--async-output"))) {
+                    writeResults(journal, sink);
+                }
+                return;
+            }
+
+            boolean eventDriven = hasOption(args, "--event-driven");
+            boolean compact = hasOption(args, "--compact-jobs");
+            if (restore != null) system = Checkpoint.restore(Paths.get(restore));
+            if (restore == null && !hasOption(args, "--no-journal")) {
+                Path journal = Paths.get(getOption(args, "--journal", "journal.bin"));
+                system.setJournal(new EventJournal(journal, system.getNumberOfCores(), seed));
+            }
+            String timeline = getOption(args, "--timeline", null);
+            if (restore == null && timeline != null) system.setTimeline(new TimelineWriter(Paths.get(timeline), system));
+            String controllerLog = getOption(args, "--controller-log", null);
+            if (controllerLog != null && system.getAdmissionController() != null) {
+                system.getAdmissionController().setLog(Paths.get(controllerLog));
+            }
+            if (restore == null && hasOption(args, "--swap")) {
+                Path swap = Paths.get(getOption(args, "--swap-file", "swap.bin"));
+                int capacity = getOption(args, "--swap-capacity", 4 * system.getRAM());
+                system.setSwapping(new BackingStore(swap, capacity), getOption(args, "--swap-rate", 16));
+            }
+            int tickMicros = getOption(args, "--tick-micros", 100);
+            if (hasOption(args, "--live")) system.setLiveExecutor(new LiveExecutor(system, tickMicros));
+            try {
+                if (restore != null) {
+                    if (checkpoint != null) checkpoint(system, eventDriven, checkpoint, checkpointAt);
+                    run(system, eventDriven, Integer.MAX_VALUE);
+                } else if (trace != null) {
+                    try (TraceJobSource source = new TraceJobSource(Paths.get(trace))) {
+                        simulate(system, compact ? JobStore.load(source) : source, eventDriven, checkpoint, checkpointAt);
+                    }
+                } else if (numberOfJobs > 0) {
+                    JobSource source = hasOption(args, "--workload") ? createWorkload(system, args, seed, numberOfJobs)
+                            : new RandomJobSource(new Random(seed), numberOfJobs, system.getNumberOfDeviceClasses());
+                    simulate(system, compact ? JobStore.load(source) : source, eventDriven, checkpoint, checkpointAt);
+                } else {
+                    LinkedList<Job> jobs = createJobs(system, new Random(seed));
+                    String traceOutput = getOption(args, "--write-trace", null);
+                    if (traceOutput != null) TraceJobSource.write(jobs, Paths.get(traceOutput));
+                    JobSource source = compact ? JobStore.load(new ListJobSource(jobs)) : new ListJobSource(jobs);
+                    simulate(system, source, eventDriven, checkpoint, checkpointAt);
+                }
+            } finally {
+                if (system.getJournal() != null) system.getJournal().close();
+                if (system.getTimeline() != null) system.getTimeline().close();
+                if (system.getMediumTermScheduler() != null) system.getMediumTermScheduler().getBackingStore().close();
+                if (system.getLiveExecutor() != null) system.getLiveExecutor().close();
+                if (system.getAdmissionController() != null) system.getAdmissionController().close();
+            }
+
+            try (ResultSink sink = ResultSink.create(format, Paths.get(output), hasOption(args, "--async-output"))) {
+                writeResults(system, sink);
+            }
+            String series = getOption(args, "--metrics-series", null);
+            if (series != null && system.getMetrics() != null) system.getMetrics().writeSeries(Paths.get(series));
 
         } catch (IOException e) {
             System.out.println(e.getMessage());
@@ -0,0 +1,514 @@
+
+package os;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.memory.FrameTable;
+import os.memory.ReplacementPolicy;
+import os.memory.Tlb;
+import os.process.Process;
+import os.process.ProcessState;
+import java.util.Arrays;
+import java.io.IOException;
+
+/**
+ * Pages process memory in and out of the physical frames instead of
+ * reserving it whole. Memory requests only reserve virtual memory, up to
+ * the overcommitted capacity; every CPU burst touches a working set of
+ * the process's pages, which slides along its address space from burst
+ * to burst. Pages touched for the first time are zero-filled when the
+ * process is dispatched, but a process dispatched with evicted pages in
+ * its working set takes a page fault: it waits on the paging device for
+ * the fault time of every evicted page and goes back to its ready queue
+ * once the pages are loaded. Frames are taken from other processes as the
+ * replacement policy chooses. While a process runs it makes one reference
+ * per tick through the TLB of its core. Every window the paging demand is
+ * compared with the CPU time the window got, and a window that spent more
+ * on faults is counted as thrashing.
+ *
+ * @author mnprtpsingh
+ */
+public class Pager {
+    private static final int WINDOW = 1000;
+    private static final int UNUSED = -1;
+    private static final int PAGED_OUT = -2;
+
+    private final ComputerSystem system;
+    private final int pageSize;
+    private final ReplacementPolicy policy;
+    private final FrameTable frames;
+    private final Tlb[] tlbs;
+    private final double workingSet;
+    private final int faultTime;
+    private final int deviceClass;
+    private final double overcommit;
+    private final int capacity;
+    private final int maxWorkingSet;
+    private int[][] pageTables;
+    private int[] sizes;
+    private int[] references;
+    private int[] starts;
+    private int[] lengths;
+    private int[] pages;
+    private int virtualUsed;
+    private int loading;
+    private int nextTick;
+    private int windowStart;
+    private long windowBusyTime;
+    private long windowFaults;
+    private long totalReferences;
+    private long tlbHits;
+    private long pageFaults;
+    private long zeroFills;
+    private int faults;
+    private long pagesIn;
+    private long evictions;
+    private int windows;
+    private int thrashingWindows;
+
+    /**
+     * @param workingSet the share of its pages a CPU burst touches
+     * @param faultTime ticks of paging device time per missing page
+     * @param deviceClass the device class faults are served by
+     * @param overcommit virtual memory capacity as a multiple of user memory
+     */
+    public Pager(ComputerSystem system, int pageSize, ReplacementPolicy policy, int tlbSize, double workingSet,
+            int faultTime, int deviceClass, double overcommit) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        if (!(workingSet > 0 && workingSet <= 1)) throw new IllegalArgumentException("Working set must be in (0, 1]: " + workingSet);
+        if (faultTime <= 0) throw new IllegalArgumentException("Fault time must be positive: " + faultTime);
+        if (!(overcommit >= 1)) throw new IllegalArgumentException("Overcommit must be at least 1: " + overcommit);
+        int userMemory = system.getRAM() - system.getOSMemorySize();
+        this.system = system;
+        this.pageSize = pageSize;
+        this.policy = policy;
+        this.frames = new FrameTable(userMemory / pageSize);
+        this.frames.setListeners(this::isPinned, this::evicted);
+        this.tlbs = new Tlb[system.getNumberOfCores()];
+        for (int i = 0; i < this.tlbs.length; i++) {
+            this.tlbs[i] = new Tlb(tlbSize);
+        }
+        this.workingSet = workingSet;
+        this.faultTime = faultTime;
+        this.deviceClass = deviceClass;
+        this.overcommit = overcommit;
+        this.capacity = (int) (overcommit * userMemory);
+        this.maxWorkingSet = this.frames.size / (this.tlbs.length + 1);
+        if (this.maxWorkingSet < 1) throw new IllegalArgumentException("Too few frames for " + this.tlbs.length + " cores: " + this.frames.size);
+        this.pageTables = new int[1024][];
+        this.sizes = new int[1024];
+        this.references = new int[1024];
+        this.starts = new int[1024];
+        this.lengths = new int[1024];
+        this.pages = new int[1024];
+        this.virtualUsed = 0;
+        this.loading = -1;
+        this.nextTick = system.getClock() + policy.getInterval();
+        this.windowStart = system.getClock();
+        this.windowBusyTime = 0;
+        this.windowFaults = 0;
+        this.totalReferences = 0;
+        this.tlbHits = 0;
+        this.pageFaults = 0;
+        this.zeroFills = 0;
+        this.faults = 0;
+        this.pagesIn = 0;
+        this.evictions = 0;
+        this.windows = 0;
+        this.thrashingWindows = 0;
+    }
+
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    public ReplacementPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public int getNumberOfFrames() {
+        return this.frames.size;
+    }
+
+    public int getTlbSize() {
+        return this.tlbs[0].size();
+    }
+
+    public double getWorkingSet() {
+        return this.workingSet;
+    }
+
+    public int getFaultTime() {
+        return this.faultTime;
+    }
+
+    public int getDeviceClass() {
+        return this.deviceClass;
+    }
+
+    public double getOvercommit() {
+        return this.overcommit;
+    }
+
+    public long getReferences() {
+        return this.totalReferences;
+    }
+
+    public long getTlbHits() {
+        return this.tlbHits;
+    }
+
+    /**
+     * @return the number of evicted pages found missing at dispatch
+     */
+    public long getPageFaults() {
+        return this.pageFaults;
+    }
+
+    /**
+     * @return the number of pages loaded on first touch
+     */
+    public long getZeroFills() {
+        return this.zeroFills;
+    }
+
+    /**
+     * @return the number of times a process waited for its pages
+     */
+    public int getFaults() {
+        return this.faults;
+    }
+
+    public long getPagesIn() {
+        return this.pagesIn;
+    }
+
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    public int getWindows() {
+        return this.windows;
+    }
+
+    public int getThrashingWindows() {
+        return this.thrashingWindows;
+    }
+
+    public int getResidentMemory() {
+        return (this.frames.size - this.frames.getNumberOfFree()) * this.pageSize;
+    }
+
+    /**
+     * @return the virtual memory processes can be given in total
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int getVirtualFree() {
+        return this.capacity - this.virtualUsed;
+    }
+
+    private int getPages(int size) {
+        return (size + this.pageSize - 1) / this.pageSize;
+    }
+
+    private void ensure(int slot) {
+        if (slot < this.sizes.length) return;
+        int length = Math.max(slot + 1, this.sizes.length * 2);
+        this.pageTables = Arrays.copyOf(this.pageTables, length);
+        this.sizes = Arrays.copyOf(this.sizes, length);
+        this.references = Arrays.copyOf(this.references, length);
+        this.starts = Arrays.copyOf(this.starts, length);
+        this.lengths = Arrays.copyOf(this.lengths, length);
+        this.pages = Arrays.copyOf(this.pages, length);
+    }
+
+    /**
+     * Frames in the working set of a running process, or of the process
+     * being paged in, stay loaded.
+     */
+    private boolean isPinned(int frame) {
+        int slot = this.frames.getOwner(frame);
+        if (slot != this.loading && this.system.getProcessTable().getState(slot) != ProcessState.RUNNING) return false;
+        int n = this.pages[slot];
+        return n > 0 && Math.floorMod(this.frames.getPage(frame) - this.starts[slot], n) < this.lengths[slot];
+    }
+
+    private void evicted(int frame) {
+        int slot = this.frames.getOwner(frame);
+        int page = this.frames.getPage(frame);
+        this.pageTables[slot][page] = PAGED_OUT;
+        for (Tlb tlb : this.tlbs) {
+            tlb.invalidate(slot, page);
+        }
+        this.evictions++;
+    }
+
+    private void free(int slot, int page) {
+        int frame = this.pageTables[slot][page];
+        this.pageTables[slot][page] = UNUSED;
+        if (frame < 0) return;
+        this.frames.free(frame);
+        for (Tlb tlb : this.tlbs) {
+            tlb.invalidate(slot, page);
+        }
+    }
+
+    /**
+     * Gives an admitted process its page table; no page is loaded until
+     * it is first dispatched.
+     */
+    void create(Process proc, int size) {
+        int slot = proc.getSlot();
+        this.ensure(slot);
+        int[] table = new int[this.getPages(size)];
+        Arrays.fill(table, UNUSED);
+        this.pageTables[slot] = table;
+        this.sizes[slot] = size;
+        this.references[slot] = 0;
+        this.pages[slot] = 0;
+        this.virtualUsed += size;
+    }
+
+    /**
+     * Grows or shrinks the virtual memory of a process; pages beyond a
+     * smaller size are freed.
+     *
+     * @return false if growing would exceed the virtual capacity
+     */
+    boolean resize(Process proc, int delta) {
+        if (delta > 0 && this.virtualUsed + delta > this.capacity) return false;
+        int slot = proc.getSlot();
+        int size = this.sizes[slot] + delta;
+        int n = this.getPages(size);
+        int[] table = this.pageTables[slot];
+        if (n > table.length) {
+            int length = table.length;
+            table = Arrays.copyOf(table, n);
+            Arrays.fill(table, length, n, UNUSED);
+            this.pageTables[slot] = table;
+        } else {
+            for (int page = n; page < table.length; page++) {
+                this.free(slot, page);
+            }
+        }
+        this.sizes[slot] = size;
+        this.virtualUsed += delta;
+        return true;
+    }
+
+    void release(Process proc) {
+        int slot = proc.getSlot();
+        if (slot >= this.pageTables.length || this.pageTables[slot] == null) return;
+        for (int page = 0; page < this.pageTables[slot].length; page++) {
+            this.free(slot, page);
+        }
+        for (Tlb tlb : this.tlbs) {
+            tlb.invalidate(slot);
+        }
+        this.virtualUsed -= this.sizes[slot];
+        this.pageTables[slot] = null;
+        this.sizes[slot] = 0;
+        this.pages[slot] = 0;
+    }
+
+    /**
+     * Places the working set of the current burst: each CPU burst moves it
+     * on by half its length, wrapping around the address space.
+     */
+    private void setWorkingSet(Process proc) {
+        int slot = proc.getSlot();
+        int n = this.getPages(this.sizes[slot]);
+        int length = n == 0 ? 0 : Math.min(Math.max((int) Math.ceil(n * this.workingSet), 1), this.maxWorkingSet);
+        this.pages[slot] = n;
+        this.lengths[slot] = length;
+        this.starts[slot] = n == 0 ? 0 : (int) ((long) (proc.job.getBurstIndex() / 2) * Math.max(length / 2, 1) % n);
+    }
+
+    private int getPagedOut(int slot) {
+        int missing = 0;
+        int[] table = this.pageTables[slot];
+        for (int i = 0; i < this.lengths[slot]; i++) {
+            if (table[(this.starts[slot] + i) % this.pages[slot]] == PAGED_OUT) missing++;
+        }
+        return missing;
+    }
+
+    /**
+     * Checks the working set of a process about to be dispatched and, if
+     * any of it was evicted, turns the process into a page fault waiting
+     * for the paging device.
+     *
+     * @return whether the process faulted
+     */
+    boolean fault(Process proc) {
+        this.setWorkingSet(proc);
+        int missing = this.getPagedOut(proc.getSlot());
+        if (missing == 0) return false;
+        this.pageFaults += missing;
+        this.windowFaults += missing;
+        this.faults++;
+        proc.job.fault(missing * this.faultTime, this.deviceClass);
+        proc.pageFault(missing);
+        return true;
+    }
+
+    /**
+     * Loads the missing pages of the working set, of a process whose fault
+     * was served or that is being dispatched. Pages that find no frame,
+     * which only happens if others are pinned, are loaded at the next
+     * dispatch.
+     */
+    void pageIn(Process proc) {
+        int slot = proc.getSlot();
+        int clock = this.system.getClock();
+        this.setWorkingSet(proc);
+        this.loading = slot;
+        int[] table = this.pageTables[slot];
+        for (int i = 0; i < this.lengths[slot]; i++) {
+            int page = (this.starts[slot] + i) % this.pages[slot];
+            if (table[page] >= 0) continue;
+            boolean zeroFill = table[page] == UNUSED;
+            int frame = this.frames.allocate();
+            if (frame < 0) {
+                frame = this.policy.select(this.frames, clock);
+                if (frame < 0) break;
+                this.evicted(frame);
+                this.frames.free(frame);
+                frame = this.frames.allocate();
+            }
+            this.frames.load(frame, slot, page, clock);
+            table[page] = frame;
+            if (zeroFill) this.zeroFills++;
+            else this.pagesIn++;
+        }
+        this.loading = -1;
+    }
+
+    private static int mix(int value) {
+        int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Makes one reference per tick a process ran, spread over its working
+     * set.
+     *
+     * @param clock the tick of the first reference
+     */
+    void reference(Process proc, int core, int time, int clock) {
+        int slot = proc.getSlot();
+        int length = this.lengths[slot];
+        if (length == 0) return;
+        int[] table = this.pageTables[slot];
+        Tlb tlb = this.tlbs[core];
+        for (int i = 0; i < time; i++) {
+            int page = (this.starts[slot] + Math.floorMod(mix(this.references[slot]++), length)) % this.pages[slot];
+            if (tlb.lookup(slot, page)) this.tlbHits++;
+            int frame = table[page];
+            if (frame >= 0) this.frames.reference(frame, clock + i);
+        }
+        this.totalReferences += time;
+    }
+
+    int getTimeToNextEvent() {
+        int clock = this.system.getClock();
+        int time = this.windowStart + WINDOW - clock;
+        if (this.policy.getInterval() > 0) time = Math.min(time, this.nextTick - clock);
+        return time;
+    }
+
+    private long getBusyTime() {
+        long busyTime = 0;
+        for (int i = 0; i < this.system.getNumberOfCores(); i++) {
+            busyTime += this.system.getCPU(i).getBusyTime();
+        }
+        return busyTime;
+    }
+
+    /**
+     * Runs the policy when its interval is over and closes the thrashing
+     * window when it is.
+     */
+    void control() {
+        int clock = this.system.getClock();
+        if (this.policy.getInterval() > 0 && clock >= this.nextTick) {
+            this.policy.tick(this.frames, clock);
+            this.nextTick = clock + this.policy.getInterval();
+        }
+        if (clock - this.windowStart >= WINDOW) {
+            long busyTime = this.getBusyTime();
+            if (this.windowFaults * this.faultTime > busyTime - this.windowBusyTime) this.thrashingWindows++;
+            this.windows++;
+            this.windowStart = clock;
+            this.windowBusyTime = busyTime;
+            this.windowFaults = 0;
+        }
+    }
+
+    void save(CheckpointWriter out) throws IOException {
+        this.frames.save(out);
+        this.policy.save(out);
+        for (Tlb tlb : this.tlbs) {
+            tlb.save(out);
+        }
+        out.putInt(this.sizes.length);
+        for (int slot = 0; slot < this.sizes.length; slot++) {
+            out.putBoolean(this.pageTables[slot] != null);
+            if (this.pageTables[slot] != null) out.putInts(this.pageTables[slot], this.pageTables[slot].length);
+        }
+        out.putInts(this.sizes, this.sizes.length);
+        out.putInts(this.references, this.references.length);
+        out.putInts(this.starts, this.starts.length);
+        out.putInts(this.lengths, this.lengths.length);
+        out.putInts(this.pages, this.pages.length);
+        out.putInt(this.virtualUsed);
+        out.putInt(this.nextTick);
+        out.putInt(this.windowStart);
+        out.putLong(this.windowBusyTime);
+        out.putLong(this.windowFaults);
+        out.putLong(this.totalReferences);
+        out.putLong(this.tlbHits);
+        out.putLong(this.pageFaults);
+        out.putLong(this.zeroFills);
+        out.putInt(this.faults);
+        out.putLong(this.pagesIn);
+        out.putLong(this.evictions);
+        out.putInt(this.windows);
+        out.putInt(this.thrashingWindows);
+    }
+
+    void restore(CheckpointReader in) throws IOException {
+        this.frames.restore(in);
+        this.policy.restore(in);
+        for (Tlb tlb : this.tlbs) {
+            tlb.restore(in);
+        }
+        int length = in.getInt();
+        this.pageTables = new int[length][];
+        for (int slot = 0; slot < length; slot++) {
+            if (in.getBoolean()) this.pageTables[slot] = in.getInts();
+        }
+        this.sizes = in.getInts();
+        this.references = in.getInts();
+        this.starts = in.getInts();
+        this.lengths = in.getInts();
+        this.pages = in.getInts();
+        this.virtualUsed = in.getInt();
+        this.nextTick = in.getInt();
+        this.windowStart = in.getInt();
+        this.windowBusyTime = in.getLong();
+        this.windowFaults = in.getLong();
+        this.totalReferences = in.getLong();
+        this.tlbHits = in.getLong();
+        this.pageFaults = in.getLong();
+        this.zeroFills = in.getLong();
+        this.faults = in.getInt();
+        this.pagesIn = in.getLong();
+        this.evictions = in.getLong();
+        this.windows = in.getInt();
+        this.thrashingWindows = in.getInt();
+    }
+}
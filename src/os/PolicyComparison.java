@@ -0,0 +1,85 @@
+
+package os;
+
+import os.policy.SchedulingPolicy;
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import java.util.Arrays;
+import java.util.Random;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Runs the same seeded workload under several CPU scheduling policies and
+ * compares their turnaround, response time and throughput.
+ *
+ * @author mnprtpsingh
+ */
+public class PolicyComparison {
+    private final String[] args;
+    private final int jobs;
+    private final long seed;
+
+    public PolicyComparison(String[] args) {
+        this.args = args;
+        this.jobs = MultiprogrammingOS.getOption(args, "--jobs", 1000);
+        this.seed = MultiprogrammingOS.getOption(args, "--seed", 0);
+    }
+
+    public ComputerSystem simulate(String policy) {
+        ComputerSystem system = MultiprogrammingOS.createSystem(this.args);
+        int quantum = MultiprogrammingOS.getOption(this.args, "--quantum", SchedulingPolicy.DEFAULT_QUANTUM);
+        system.setSchedulingPolicy(SchedulingPolicy.create(policy, quantum), system.getIOPolicy());
+        RandomJobSource source = new RandomJobSource(new Random(this.seed), this.jobs, system.getNumberOfDeviceClasses());
+        MultiprogrammingOS.simulate(system, source, true);
+        return system;
+    }
+
+    public static int getPercentile(ProcessTable table, int column, double percentile) {
+        int[] values = new int[table.size()];
+        int n = 0;
+        for (int slot = 0; slot < table.size(); slot++) {
+            ProcessState state = table.getState(slot);
+            if (state == ProcessState.TERMINATED || state == ProcessState.KILLED) {
+                values[n++] = table.get(column, slot);
+            }
+        }
+        if (n == 0) return 0;
+        Arrays.sort(values, 0, n);
+        return values[Math.max((int) Math.ceil(percentile * n) - 1, 0)];
+    }
+
+    public void displayStatistics(FileWriter writer, String policy, ComputerSystem system) throws IOException {
+        ProcessTable table = system.getProcessTable();
+        int terminated = table.count(ProcessState.TERMINATED);
+        double turnaround = table.sum(ProcessTable.COMPLETION_TIME, ProcessState.TERMINATED)
+                - table.sum(ProcessTable.ARRIVAL_TIME, ProcessState.TERMINATED);
+
+        String s = System.lineSeparator();
+        writer.write(s + s + "Policy: " + policy);
+        writer.write(s + "Mean Turnaround Time: " + Double.toString(terminated == 0 ? 0 : turnaround / terminated));
+        writer.write(s + "P99 Response Time: " + Integer.toString(getPercentile(table, ProcessTable.RESPONSE_TIME, 0.99)));
+        writer.write(s + "Throughput (jobs per 1000 ticks): " + Double.toString(terminated * 1000.0 / system.getClock()));
+        writer.write(s + "Killed Processes: " + Integer.toString(table.count(ProcessState.KILLED)));
+        writer.write(s + "CPU Utilization: " + Double.toString(system.getCPUUtilization()));
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        PolicyComparison comparison = new PolicyComparison(args);
+        String[] policies = MultiprogrammingOS.getOption(args, "--policies", "srtf,fcfs,rr,mlfq,cfs").split(",");
+        try {
+            FileWriter writer = new FileWriter("policies.txt");
+            writer.write("Number of Jobs: " + Integer.toString(comparison.jobs));
+            writer.write(System.lineSeparator() + "Seed: " + Long.toString(comparison.seed));
+            for (String policy : policies) {
+                comparison.displayStatistics(writer, policy, comparison.simulate(policy));
+            }
+            writer.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
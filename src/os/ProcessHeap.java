@@ -0,0 +1,163 @@
+
+package os;
+
+import os.policy.ProcessQueue;
+import os.process.Process;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of processes that records each process's position in
+ * the process itself, so that membership checks are O(1) and removal or
+ * re-keying of an arbitrary process is O(log n). Heaps sharing a slot
+ * must never hold the same process at the same time. Sifting follows
+ * java.util.PriorityQueue.
+ *
+ * @author mnprtpsingh
+ */
+public class ProcessHeap implements ProcessQueue {
+    public static final int QUEUE_SLOT = 0;
+    public static final int MEMORY_SLOT = 1;
+
+    private final Comparator<Process> comparator;
+    private final int slot;
+    private Process[] queue;
+    private int size;
+
+    public ProcessHeap(Comparator<Process> comparator) {
+        this(comparator, QUEUE_SLOT);
+    }
+
+    public ProcessHeap(Comparator<Process> comparator, int slot) {
+        this.comparator = comparator;
+        this.slot = slot;
+        this.queue = new Process[16];
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private int indexOf(Process proc) {
+        int i = proc.getHeapIndex(this.slot);
+        if (i >= 0 && i < this.size && this.queue[i] == proc) return i;
+        return -1;
+    }
+
+    public boolean contains(Process proc) {
+        return this.indexOf(proc) >= 0;
+    }
+
+    @Override
+    public Process peek() {
+        return this.size == 0 ? null : this.queue[0];
+    }
+
+    public Process element() {
+        if (this.size == 0) throw new NoSuchElementException();
+        return this.queue[0];
+    }
+
+    @Override
+    public boolean add(Process proc) {
+        if (this.contains(proc)) return false;
+        if (this.size == this.queue.length) {
+            this.queue = Arrays.copyOf(this.queue, this.size * 2);
+        }
+        this.siftUp(this.size++, proc);
+        return true;
+    }
+
+    @Override
+    public Process remove() {
+        Process result = this.element();
+        result.setHeapIndex(this.slot, -1);
+        int n = --this.size;
+        Process last = this.queue[n];
+        this.queue[n] = null;
+        if (n > 0) this.siftDown(0, last);
+        return result;
+    }
+
+    public boolean remove(Process proc) {
+        int i = this.indexOf(proc);
+        if (i < 0) return false;
+        proc.setHeapIndex(this.slot, -1);
+        int n = --this.size;
+        if (n == i) {
+            this.queue[i] = null;
+        } else {
+            Process moved = this.queue[n];
+            this.queue[n] = null;
+            this.siftDown(i, moved);
+            if (this.queue[i] == moved) this.siftUp(i, moved);
+        }
+        return true;
+    }
+
+    public boolean update(Process proc) {
+        int i = this.indexOf(proc);
+        if (i < 0) return false;
+        this.siftDown(i, proc);
+        if (this.queue[i] == proc) this.siftUp(i, proc);
+        return true;
+    }
+
+    /**
+     * Visits the processes in heap order, so adding them back in that
+     * order rebuilds the same heap.
+     */
+    @Override
+    public Iterator<Process> iterator() {
+        return Arrays.asList(this.queue).subList(0, this.size).iterator();
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.queue[i].setHeapIndex(this.slot, -1);
+            this.queue[i] = null;
+        }
+        this.size = 0;
+    }
+
+    private void set(int k, Process proc) {
+        this.queue[k] = proc;
+        proc.setHeapIndex(this.slot, k);
+    }
+
+    private void siftUp(int k, Process proc) {
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            Process e = this.queue[parent];
+            if (this.comparator.compare(proc, e) >= 0) break;
+            this.set(k, e);
+            k = parent;
+        }
+        this.set(k, proc);
+    }
+
+    private void siftDown(int k, Process proc) {
+        int half = this.size >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            Process c = this.queue[child];
+            int right = child + 1;
+            if (right < this.size && this.comparator.compare(c, this.queue[right]) > 0) {
+                c = this.queue[child = right];
+            }
+            if (this.comparator.compare(proc, c) <= 0) break;
+            this.set(k, c);
+            k = child;
+        }
+        this.set(k, proc);
+    }
+}
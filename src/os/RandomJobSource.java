@@ -0,0 +1,36 @@
+
+package os;
+
+import os.job.Job;
+import os.job.JobSource;
+import java.util.Random;
+
+/**
+ * Generates jobs on demand with the same distributions as createJobs.
+ *
+ * @author mnprtpsingh
+ */
+public class RandomJobSource implements JobSource {
+    private final Random random;
+    private final int numberOfJobs;
+    private final int deviceClasses;
+    private int generated;
+
+    public RandomJobSource(Random random, int numberOfJobs) {
+        this(random, numberOfJobs, 1);
+    }
+
+    public RandomJobSource(Random random, int numberOfJobs, int deviceClasses) {
+        this.random = random;
+        this.numberOfJobs = numberOfJobs;
+        this.deviceClasses = deviceClasses;
+        this.generated = 0;
+    }
+
+    @Override
+    public Job next() {
+        if (this.generated == this.numberOfJobs) return null;
+        this.generated++;
+        return MultiprogrammingOS.createJob(this.random, this.numberOfJobs, this.deviceClasses);
+    }
+}
@@ -2,9 +2,10 @@
 package os;
 
 import os.job.*;
+import os.metrics.Metrics;
+import os.policy.ProcessQueue;
 import os.process.Process;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
 import java.util.Comparator;
 
 /**
@@ -13,109 +14,185 @@ import java.util.Comparator;
  */
 public class ShortTermScheduler {
     private final ComputerSystem system;
-    private final PriorityQueue<Process> readyQueue;
-    private final PriorityQueue<Process> ioWaitQueue;
-    private final PriorityQueue<Process> memoryWaitQueue;
-    private final PriorityQueue<Process> memoryAllocated;
-    private final LinkedList<Process> killedQueue;
-    private final LinkedList<Process> terminatedQueue;
+    private ProcessQueue[] readyQueues;
+    private ProcessQueue[] ioWaitQueues;
+    private final ProcessHeap memoryWaitQueue;
+    private final ProcessHeap memoryAllocated;
+    private final ArrayList<Process> killedQueue;
+    private final ArrayList<Process> terminatedQueue;
 
     ShortTermScheduler(ComputerSystem system) {
         this.system = system;
-        this.readyQueue = new PriorityQueue<>(new ProcessRemainingTimeComparator());
-        this.ioWaitQueue = new PriorityQueue<>(new ProcessRemainingTimeComparator());
-        this.memoryWaitQueue = new PriorityQueue<>(new ProcessMemoryAllocatedComparatorLess());
-        this.memoryAllocated = new PriorityQueue<>(new ProcessMemoryAllocatedComparatorGreater());
-        this.killedQueue = new LinkedList<>();
-        this.terminatedQueue = new LinkedList<>();
+        this.createQueues();
+        this.memoryWaitQueue = new ProcessHeap(new ProcessMemoryAllocatedComparatorLess());
+        this.memoryAllocated = new ProcessHeap(new ProcessMemoryAllocatedComparatorGreater(), ProcessHeap.MEMORY_SLOT);
+        this.killedQueue = new ArrayList<>();
+        this.terminatedQueue = new ArrayList<>();
     }
 
-    public void createProcess(Job job) {
+    void createQueues() {
+        this.readyQueues = new ProcessQueue[this.system.getNumberOfCores()];
+        for (int i = 0; i < this.readyQueues.length; i++) {
+            this.readyQueues[i] = this.system.getCPUPolicy().createQueue();
+        }
+        this.ioWaitQueues = new ProcessQueue[this.system.getNumberOfIODevices()];
+        for (int i = 0; i < this.ioWaitQueues.length; i++) {
+            this.ioWaitQueues[i] = this.system.getIOPolicy().createQueue();
+        }
+    }
+
+    public Process createProcess(Job job) {
         int pid = this.system.getCounter();
         int arrTime = this.system.getClock();
         Process proc = new Process(job, this.system, pid, arrTime);
-        this.readyQueue.add(proc);
+        this.addToReadyQueue(proc);
         this.system.incrementCounter();
+        return proc;
+    }
+
+    public void addToReadyQueue(Process proc) {
+        int core = proc.getCore();
+        if (core < 0 || !this.system.hasAffinity()) {
+            core = 0;
+            int minLoad = Integer.MAX_VALUE;
+            for (int i = 0; i < this.readyQueues.length; i++) {
+                int load = this.getLoad(i);
+                if (load < minLoad) {
+                    minLoad = load;
+                    core = i;
+                }
+            }
+        }
+        this.readyQueues[core].add(proc);
+    }
+
+    public void addToIOWaitQueue(Process proc) {
+        int deviceClass = proc.job.getBurstDevice();
+        if (deviceClass >= this.system.getNumberOfDeviceClasses()) deviceClass = 0;
+        IO_Device device = null;
+        int minLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < this.ioWaitQueues.length; i++) {
+            IO_Device candidate = this.system.getIODevice(i);
+            if (candidate.deviceClass != deviceClass) continue;
+            int load = this.ioWaitQueues[i].size();
+            if (candidate.getBusyProcess() != null) load++;
+            if (load < minLoad) {
+                minLoad = load;
+                device = candidate;
+            }
+        }
+        proc.job.setRemainingTime(device.getServiceTime(proc.job.getRemainingTime()));
+        device.addRequest();
+        this.ioWaitQueues[device.id].add(proc);
+    }
+
+    public int getLoad(int core) {
+        int load = this.readyQueues[core].size();
+        if (this.system.getCPU(core).getRunningProcess() != null) load++;
+        return load;
+    }
+
+    private boolean isReadyQueueEmpty() {
+        for (int i = 0; i < this.readyQueues.length; i++) {
+            if (!this.readyQueues[i].isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private boolean isIOWaitQueueEmpty() {
+        for (int i = 0; i < this.ioWaitQueues.length; i++) {
+            if (!this.ioWaitQueues[i].isEmpty()) return false;
+        }
+        return true;
     }
 
     public boolean isTerminated() {
-        if (!this.readyQueue.isEmpty()) return false;
-        if (!this.ioWaitQueue.isEmpty()) return false;
+        if (!this.isReadyQueueEmpty()) return false;
+        if (!this.isIOWaitQueueEmpty()) return false;
         return this.memoryWaitQueue.isEmpty();
     }
 
     public boolean isDeadlocked() {
-        if (!this.readyQueue.isEmpty()) return false;
-        if (!this.ioWaitQueue.isEmpty()) return false;
+        if (!this.isReadyQueueEmpty()) return false;
+        if (!this.isIOWaitQueueEmpty()) return false;
         return !this.memoryWaitQueue.isEmpty();
     }
 
-    public Process dispatchToCPU() {
-        if (this.readyQueue.isEmpty()) return null;
-        return this.readyQueue.remove();
+    public Process dispatchToCPU(int core) {
+        ProcessQueue queue = this.readyQueues[core];
+        if (queue.isEmpty()) return null;
+        return queue.remove();
+    }
+
+    public Process steal(int core) {
+        ProcessQueue victim = null;
+        for (int i = 0; i < this.readyQueues.length; i++) {
+            ProcessQueue queue = this.readyQueues[i];
+            if (i == core || queue.isEmpty()) continue;
+            if (victim == null || queue.size() > victim.size()) victim = queue;
+        }
+        if (victim == null) return null;
+        return victim.remove();
     }
 
-    public Process dispatchForIO() {
-        if (this.ioWaitQueue.isEmpty()) return null;
-        return this.ioWaitQueue.remove();
+    public Process dispatchForIO(int device) {
+        ProcessQueue queue = this.ioWaitQueues[device];
+        if (queue.isEmpty()) return null;
+        return queue.remove();
     }
 
     public boolean allotMemory() {
         if (!this.memoryWaitQueue.isEmpty()) {
-            int availableMemory = this.system.getAvailableMemorySize();
             Process proc = this.memoryWaitQueue.element();
-            CPU_Burst bst = (CPU_Burst) proc.job.getBurst();
-            int memoryRequired = bst.getMemoryRequired();
-            if (memoryRequired <= availableMemory) {
+            int memoryRequired = proc.job.getBurstMemoryRequired();
+            if (this.system.allocateMemory(proc, memoryRequired)) {
                 this.memoryWaitQueue.remove();
-                this.system.allocateMemory(memoryRequired);
                 proc.ready();
-                this.readyQueue.add(proc);
+                this.memoryAllocated.update(proc);
+                this.addToReadyQueue(proc);
                 return true;
             }
         }
         return false;
     }
 
-    public PriorityQueue<Process> getReadyQueue() {
-        return this.readyQueue;
+    public void addKilled(Process proc) {
+        Metrics metrics = this.system.getMetrics();
+        if (metrics != null) metrics.complete(this.system.getProcessTable(), proc.getSlot());
+        if (this.system.retainsProcesses()) this.killedQueue.add(proc);
     }
 
-    public PriorityQueue<Process> getIOWaitQueue() {
-        return this.ioWaitQueue;
+    public void addTerminated(Process proc) {
+        Metrics metrics = this.system.getMetrics();
+        if (metrics != null) metrics.complete(this.system.getProcessTable(), proc.getSlot());
+        if (this.system.retainsProcesses()) this.terminatedQueue.add(proc);
     }
 
-    public PriorityQueue<Process> getMemoryWaitQueue() {
+    public ProcessQueue getReadyQueue(int core) {
+        return this.readyQueues[core];
+    }
+
+    public ProcessQueue getIOWaitQueue(int device) {
+        return this.ioWaitQueues[device];
+    }
+
+    public ProcessHeap getMemoryWaitQueue() {
         return this.memoryWaitQueue;
     }
 
-    public PriorityQueue<Process> getMemoryAllocated() {
+    public ProcessHeap getMemoryAllocated() {
         return this.memoryAllocated;
     }
 
-    public LinkedList<Process> getKilledQueue() {
+    public ArrayList<Process> getKilledQueue() {
         return this.killedQueue;
     }
 
-    public LinkedList<Process> getTerminatedQueue() {
+    public ArrayList<Process> getTerminatedQueue() {
         return this.terminatedQueue;
     }
 }
 
-class ProcessRemainingTimeComparator implements Comparator<Process> {
-
-    @Override
-    public int compare(Process p1, Process p2) {
-        int t1 = p1.getRemainingTime();
-        int t2 = p2.getRemainingTime();
-        if (t1 < t2) return -1;
-        else if (t1 > t2) return 1;
-        else if (p1.pid < p2.pid) return -1;
-        else if (p1.pid > p2.pid) return 1;
-        return 0;
-    }
-}
-
 class ProcessMemoryAllocatedComparatorLess implements Comparator<Process> {
 
     @Override
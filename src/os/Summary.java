@@ -0,0 +1,51 @@
+
+package os;
+
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Running mean and variance of one measure over the runs of an ensemble.
+ *
+ * @author mnprtpsingh
+ */
+class Summary {
+    private final String name;
+    private int count;
+    private double mean;
+    private double m2;
+
+    Summary(String name) {
+        this.name = name;
+    }
+
+    public void add(double value) {
+        this.count++;
+        double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.m2 += delta * (value - this.mean);
+    }
+
+    public double getMean() {
+        return this.mean;
+    }
+
+    public double getStandardDeviation() {
+        if (this.count < 2) return 0;
+        return Math.sqrt(this.m2 / (this.count - 1));
+    }
+
+    public double getConfidenceInterval() {
+        if (this.count < 2) return 0;
+        return 1.96 * this.getStandardDeviation() / Math.sqrt(this.count);
+    }
+
+    public void displayStatistics(FileWriter writer) throws IOException {
+        String s = System.lineSeparator();
+        writer.write(s + s + this.name);
+        writer.write(s + "Mean: " + Double.toString(this.mean));
+        writer.write(s + "Standard Deviation: " + Double.toString(this.getStandardDeviation()));
+        writer.write(s + "95% Confidence Interval: " + Double.toString(this.mean - this.getConfidenceInterval())
+                + " - " + Double.toString(this.mean + this.getConfidenceInterval()));
+    }
+}
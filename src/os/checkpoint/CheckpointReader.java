@@ -0,0 +1,111 @@
+
+package os.checkpoint;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads values written by a CheckpointWriter.
+ *
+ * @author mnprtpsingh
+ */
+public class CheckpointReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    public CheckpointReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() >= bytes) return;
+        this.buffer.compact();
+        while (this.buffer.position() < bytes) {
+            if (this.channel.read(this.buffer) < 0) throw new EOFException("Truncated checkpoint");
+        }
+        this.buffer.flip();
+    }
+
+    public boolean getBoolean() throws IOException {
+        return this.getByte() != 0;
+    }
+
+    public byte getByte() throws IOException {
+        this.ensure(1);
+        return this.buffer.get();
+    }
+
+    public int getInt() throws IOException {
+        this.ensure(4);
+        return this.buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        this.ensure(8);
+        return this.buffer.getLong();
+    }
+
+    public double getDouble() throws IOException {
+        this.ensure(8);
+        return this.buffer.getDouble();
+    }
+
+    public String getString() throws IOException {
+        int length = this.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        this.getBytes(bytes, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public void getBytes(byte[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            this.ensure(1);
+            int n = Math.min(this.buffer.remaining(), length - offset);
+            this.buffer.get(values, offset, n);
+            offset += n;
+        }
+    }
+
+    public int[] getInts() throws IOException {
+        int[] values = new int[this.getInt()];
+        int offset = 0;
+        while (offset < values.length) {
+            this.ensure(4);
+            int n = Math.min(this.buffer.remaining() / 4, values.length - offset);
+            this.buffer.asIntBuffer().get(values, offset, n);
+            this.buffer.position(this.buffer.position() + n * 4);
+            offset += n;
+        }
+        return values;
+    }
+
+    public long[] getLongs() throws IOException {
+        long[] values = new long[this.getInt()];
+        int offset = 0;
+        while (offset < values.length) {
+            this.ensure(8);
+            int n = Math.min(this.buffer.remaining() / 8, values.length - offset);
+            this.buffer.asLongBuffer().get(values, offset, n);
+            this.buffer.position(this.buffer.position() + n * 8);
+            offset += n;
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,115 @@
+
+package os.checkpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes primitive values big-endian through a direct buffer to a file
+ * channel.
+ *
+ * @author mnprtpsingh
+ */
+public class CheckpointWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    public CheckpointWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() >= bytes) return;
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) this.channel.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    public void putBoolean(boolean value) throws IOException {
+        this.putByte(value ? 1 : 0);
+    }
+
+    public void putByte(int value) throws IOException {
+        this.ensure(1);
+        this.buffer.put((byte) value);
+    }
+
+    public void putInt(int value) throws IOException {
+        this.ensure(4);
+        this.buffer.putInt(value);
+    }
+
+    public void putLong(long value) throws IOException {
+        this.ensure(8);
+        this.buffer.putLong(value);
+    }
+
+    public void putDouble(double value) throws IOException {
+        this.ensure(8);
+        this.buffer.putDouble(value);
+    }
+
+    public void putString(String value) throws IOException {
+        if (value == null) {
+            this.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.putInt(bytes.length);
+        this.putBytes(bytes, bytes.length);
+    }
+
+    public void putBytes(byte[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            this.ensure(1);
+            int n = Math.min(this.buffer.remaining(), length - offset);
+            this.buffer.put(values, offset, n);
+            offset += n;
+        }
+    }
+
+    public void putInts(int[] values, int length) throws IOException {
+        this.putInt(length);
+        int offset = 0;
+        while (offset < length) {
+            this.ensure(4);
+            int n = Math.min(this.buffer.remaining() / 4, length - offset);
+            this.buffer.asIntBuffer().put(values, offset, n);
+            this.buffer.position(this.buffer.position() + n * 4);
+            offset += n;
+        }
+    }
+
+    public void putLongs(long[] values, int length) throws IOException {
+        this.putInt(length);
+        int offset = 0;
+        while (offset < length) {
+            this.ensure(8);
+            int n = Math.min(this.buffer.remaining() / 8, length - offset);
+            this.buffer.asLongBuffer().put(values, offset, n);
+            this.buffer.position(this.buffer.position() + n * 8);
+            offset += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) this.channel.write(this.buffer);
+            this.channel.force(false);
+        } finally {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+
+package os.cluster;
+
+import os.ComputerSystem;
+import os.MultiprogrammingOS;
+import os.RandomJobSource;
+import os.job.Job;
+import os.job.JobSource;
+import os.report.ResultSink;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates a cluster of nodes behind a global dispatcher as a
+ * conservative parallel discrete-event simulation. Time advances in
+ * lock-step windows: at the start of each window the dispatcher routes
+ * every job that arrives during it, then the nodes run to the end of the
+ * window in parallel, each node on one worker thread. Nodes never affect
+ * each other within a window, so the window is the lookahead, and routing
+ * decisions see node state at most one window old. The results do not
+ * depend on the number of threads.
+ *
+ * @author mnprtpsingh
+ */
+public class Cluster {
+    private final Node[] nodes;
+    private final DispatchPolicy policy;
+    private final int window;
+    private JobSource source;
+    private Job next;
+    private int end;
+    private int windows;
+    private boolean done;
+    private long wallTime;
+
+    /**
+     * @param window ticks in one lock-step window
+     */
+    public Cluster(Node[] nodes, DispatchPolicy policy, int window) {
+        if (nodes.length == 0) throw new IllegalArgumentException("A cluster needs at least one node");
+        if (window < 1) throw new IllegalArgumentException("Window must be positive: " + window);
+        this.nodes = nodes;
+        this.policy = policy;
+        this.window = window;
+        this.end = 0;
+        this.windows = 0;
+        this.done = false;
+    }
+
+    public Node[] getNodes() {
+        return this.nodes;
+    }
+
+    public DispatchPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public int getWindow() {
+        return this.window;
+    }
+
+    public int getWindows() {
+        return this.windows;
+    }
+
+    /**
+     * @return the node with the most memory for a single job
+     */
+    public Node getLargestNode() {
+        Node largest = this.nodes[0];
+        for (Node node : this.nodes) {
+            int memory = node.getSystem().getLongTermScheduler().getMaxJobMemory();
+            if (memory > largest.getSystem().getLongTermScheduler().getMaxJobMemory()) largest = node;
+        }
+        return largest;
+    }
+
+    /**
+     * @return the clock of the node that finished last
+     */
+    public int getMakespan() {
+        int makespan = 0;
+        for (Node node : this.nodes) {
+            makespan = Math.max(makespan, node.getSystem().getClock());
+        }
+        return makespan;
+    }
+
+    public long getWallTime() {
+        return this.wallTime;
+    }
+
+    /**
+     * Opens the next window and routes the jobs arriving in it. When every
+     * node is out of work, the windows before the next arrival are skipped.
+     */
+    private void advance() {
+        boolean idle = true;
+        for (Node node : this.nodes) {
+            if (!node.isFinished()) idle = false;
+        }
+        if (idle && this.next == null) {
+            this.done = true;
+            return;
+        }
+        int start = this.end;
+        if (idle && this.next.arrivalTime >= start + this.window) {
+            start = this.next.arrivalTime - this.next.arrivalTime % this.window;
+        }
+        this.end = start + this.window;
+        while (this.next != null && this.next.arrivalTime < this.end) {
+            Node node = this.policy.select(this.nodes, this.next);
+            if (node == null) {
+                throw new IllegalArgumentException("Job needs more memory than any node has: " + this.next.memoryRequired);
+            }
+            node.submit(this.next);
+            this.next = this.source.next();
+        }
+        this.windows++;
+    }
+
+    private void work(int worker, int threads, boolean eventDriven, CyclicBarrier barrier)
+            throws InterruptedException, BrokenBarrierException {
+        while (true) {
+            for (int i = worker; i < this.nodes.length; i += threads) {
+                this.nodes[i].run(this.end, eventDriven);
+            }
+            barrier.await();
+            if (this.done) return;
+        }
+    }
+
+    /**
+     * Runs until every job has been routed and every node is out of work.
+     */
+    public void simulate(JobSource source, boolean eventDriven, int threads) throws Exception {
+        this.source = source;
+        this.next = source.next();
+        long start = System.nanoTime();
+        this.advance();
+        for (Node node : this.nodes) {
+            node.start();
+        }
+
+        int workers = Math.max(1, Math.min(threads, this.nodes.length));
+        CyclicBarrier barrier = new CyclicBarrier(workers, this::advance);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            ArrayList<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                int worker = i;
+                futures.add(pool.submit((Callable<Void>) () -> {
+                    try {
+                        this.work(worker, workers, eventDriven, barrier);
+                    } catch (RuntimeException | Error e) {
+                        barrier.reset();
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            ExecutionException failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null || failure.getCause() instanceof BrokenBarrierException) failure = e;
+                }
+            }
+            if (failure != null) {
+                if (failure.getCause() instanceof Exception) throw (Exception) failure.getCause();
+                throw failure;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        this.wallTime = System.nanoTime() - start;
+    }
+
+    public void writeResults(ResultSink sink) throws IOException {
+        int makespan = Math.max(this.getMakespan(), 1);
+        int completed = 0;
+        int killed = 0;
+        double utilizationSum = 0;
+        double maxUtilization = 0;
+        double throughputSum = 0;
+        double throughputSquares = 0;
+        for (Node node : this.nodes) {
+            completed += node.getCompleted();
+            killed += node.getKilled();
+            double utilization = (double) node.getBusyTime() / makespan / node.getNumberOfCores();
+            utilizationSum += utilization;
+            maxUtilization = Math.max(maxUtilization, utilization);
+            double throughput = node.getCompleted() * 1000.0 / makespan;
+            throughputSum += throughput;
+            throughputSquares += throughput * throughput;
+        }
+        double meanThroughput = throughputSum / this.nodes.length;
+        double deviation = Math.sqrt(Math.max(throughputSquares / this.nodes.length - meanThroughput * meanThroughput, 0));
+        double meanUtilization = utilizationSum / this.nodes.length;
+        long ticks = 0;
+        for (Node node : this.nodes) {
+            ticks += node.getSystem().getClock();
+        }
+
+        sink.begin(completed + killed);
+        for (Node node : this.nodes) {
+            ComputerSystem system = node.getSystem();
+            String name = "Node " + Integer.toString(node.id);
+            sink.section();
+            sink.metric(name + " RAM", system.getRAM());
+            sink.metric(name + " Cores", system.getNumberOfCores());
+            sink.metric(name + " Jobs Routed", node.getRouted());
+            sink.metric(name + " Jobs Completed", node.getCompleted());
+            sink.metric(name + " Jobs Killed", node.getKilled());
+            sink.metric(name + " Throughput (jobs per 1000 ticks)", node.getCompleted() * 1000.0 / makespan);
+            sink.metric(name + " CPU Utilization", (double) node.getBusyTime() / makespan / system.getNumberOfCores());
+            sink.metric(name + " Mean Turnaround Time", node.getMeanTurnaroundTime());
+        }
+
+        sink.section();
+        sink.metric("Nodes", this.nodes.length);
+        sink.metric("Dispatch Policy", this.policy.getName());
+        sink.metric("Window", this.window);
+        sink.metric("Windows", this.windows);
+        sink.metric("Jobs Completed", completed);
+        sink.metric("Jobs Killed", killed);
+        sink.metric("Makespan", makespan);
+        sink.metric("Throughput (jobs per 1000 ticks)", completed * 1000.0 / makespan);
+        sink.metric("CPU Utilization", meanUtilization);
+        sink.metric("Load Imbalance (max/mean utilization)", meanUtilization == 0 ? 0 : maxUtilization / meanUtilization);
+        sink.metric("Throughput Coefficient of Variation", meanThroughput == 0 ? 0 : deviation / meanThroughput);
+        sink.metric("Wall Time (ms)", this.wallTime / 1e6);
+        sink.metric("Simulated Node Ticks per Second", ticks * 1e9 / Math.max(this.wallTime, 1));
+    }
+
+    /**
+     * Builds the nodes from the usual system options; --node-ram gives the
+     * RAM of each node as a comma-separated list, otherwise --nodes nodes
+     * share --ram.
+     */
+    public static Node[] createNodes(String[] args) {
+        String ram = MultiprogrammingOS.getOption(args, "--node-ram", null);
+        String[] sizes = new String[MultiprogrammingOS.getOption(args, "--nodes", 4)];
+        if (ram != null) sizes = ram.split(",");
+        Node[] nodes = new Node[sizes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            String[] nodeArgs = args;
+            if (sizes[i] != null) {
+                nodeArgs = new String[args.length + 1];
+                nodeArgs[0] = "--ram=" + Integer.parseInt(sizes[i].trim());
+                System.arraycopy(args, 0, nodeArgs, 1, args.length);
+            }
+            nodes[i] = new Node(i, MultiprogrammingOS.createSystem(nodeArgs));
+        }
+        return nodes;
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        long seed = Long.parseLong(MultiprogrammingOS.getOption(args, "--seed", "0"));
+        int jobs = MultiprogrammingOS.getOption(args, "--jobs", 1000);
+        int threads = MultiprogrammingOS.getOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        String format = MultiprogrammingOS.getOption(args, "--output-format", "text");
+        String output = MultiprogrammingOS.getOption(args, "--output", format.equals("text") ? "cluster.txt" : "cluster." + (format.equals("csv") ? "csv" : "bin"));
+
+        Cluster cluster = new Cluster(createNodes(args),
+                DispatchPolicy.create(MultiprogrammingOS.getOption(args, "--dispatch", "least-loaded"), seed),
+                MultiprogrammingOS.getOption(args, "--window", 100));
+        ComputerSystem largest = cluster.getLargestNode().getSystem();
+        JobSource source = MultiprogrammingOS.hasOption(args, "--workload")
+                ? MultiprogrammingOS.createWorkload(largest, args, seed, jobs)
+                : new RandomJobSource(new Random(seed), jobs, largest.getNumberOfDeviceClasses());
+        try {
+            cluster.simulate(source, MultiprogrammingOS.hasOption(args, "--event-driven"), threads);
+            try (ResultSink sink = ResultSink.create(format, Paths.get(output), false)) {
+                cluster.writeResults(sink);
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
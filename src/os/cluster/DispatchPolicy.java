@@ -0,0 +1,51 @@
+
+package os.cluster;
+
+import os.job.Job;
+
+/**
+ * Chooses the node an incoming job is routed to. Only nodes that can ever
+ * admit the job are candidates. Policies see the nodes as they were at the
+ * start of the window, plus the jobs already routed in it.
+ *
+ * @author mnprtpsingh
+ */
+public abstract class DispatchPolicy {
+
+    /**
+     * @param seed seeds the policies that sample nodes at random
+     */
+    public static DispatchPolicy create(String name, long seed) {
+        switch (name) {
+            case "round-robin":
+                return new RoundRobinDispatch();
+            case "least-loaded":
+                return new LeastLoadedDispatch();
+            case "memory-aware":
+                return new MemoryAwareDispatch();
+            case "power-of-two":
+                return new PowerOfTwoDispatch(seed);
+            default:
+                throw new IllegalArgumentException("Unknown dispatch policy: " + name);
+        }
+    }
+
+    public abstract String getName();
+
+    /**
+     * @return a node that fits the job
+     */
+    public abstract Node select(Node[] nodes, Job job);
+
+    /**
+     * @return the least loaded node that fits the job, the first one on a
+     * tie, or null if none fits
+     */
+    static Node getLeastLoaded(Node[] nodes, Job job) {
+        Node best = null;
+        for (Node node : nodes) {
+            if (node.fits(job) && (best == null || node.isLessLoaded(best))) best = node;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,22 @@
+
+package os.cluster;
+
+import os.job.Job;
+
+/**
+ * Routes each job to the node with the fewest processes per core.
+ *
+ * @author mnprtpsingh
+ */
+public class LeastLoadedDispatch extends DispatchPolicy {
+
+    @Override
+    public String getName() {
+        return "least-loaded";
+    }
+
+    @Override
+    public Node select(Node[] nodes, Job job) {
+        return getLeastLoaded(nodes, job);
+    }
+}
@@ -0,0 +1,37 @@
+
+package os.cluster;
+
+import os.job.Job;
+
+/**
+ * Routes each job to the least loaded node that has the memory for it
+ * once the jobs already routed there are admitted, so that it does not
+ * have to wait for memory; among equally loaded nodes the one with more
+ * memory left wins. When the job fits nowhere right now, the least loaded
+ * node gets it.
+ *
+ * @author mnprtpsingh
+ */
+public class MemoryAwareDispatch extends DispatchPolicy {
+
+    @Override
+    public String getName() {
+        return "memory-aware";
+    }
+
+    @Override
+    public Node select(Node[] nodes, Job job) {
+        Node best = null;
+        long bestFree = 0;
+        for (Node node : nodes) {
+            if (!node.fits(job)) continue;
+            long free = node.getFreeMemory() - job.memoryRequired;
+            if (free < 0) continue;
+            if (best == null || node.isLessLoaded(best) || (!best.isLessLoaded(node) && free > bestFree)) {
+                best = node;
+                bestFree = free;
+            }
+        }
+        return best != null ? best : getLeastLoaded(nodes, job);
+    }
+}
@@ -0,0 +1,141 @@
+
+package os.cluster;
+
+import os.ComputerSystem;
+import os.LongTermScheduler;
+import os.MultiprogrammingOS;
+import os.ShortTermScheduler;
+import os.job.Job;
+import os.job.ListJobSource;
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import java.util.Collections;
+
+/**
+ * One machine of the cluster: a complete system with its own clock, fed
+ * by the dispatcher instead of a job source. A node only ever runs up to
+ * the end of the current window, so every job routed to it arrives at or
+ * after its clock.
+ *
+ * @author mnprtpsingh
+ */
+public class Node {
+    public final int id;
+    private final ComputerSystem system;
+    private int routed;
+    private boolean finished;
+
+    public Node(int id, ComputerSystem system) {
+        this.id = id;
+        this.system = system;
+        this.routed = 0;
+        this.finished = false;
+    }
+
+    public ComputerSystem getSystem() {
+        return this.system;
+    }
+
+    public int getNumberOfCores() {
+        return this.system.getNumberOfCores();
+    }
+
+    /**
+     * @return the number of jobs routed to this node
+     */
+    public int getRouted() {
+        return this.routed;
+    }
+
+    /**
+     * @return whether the node ran out of work in the last window
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * @return the processes running or waiting on the node, and the jobs
+     * routed to it that are not admitted yet
+     */
+    public int getLoad() {
+        ShortTermScheduler sts = this.system.getShortTermScheduler();
+        int load = this.system.getLongTermScheduler().getQueuedJobs() + sts.getMemoryWaitQueue().size();
+        for (int i = 0; i < this.system.getNumberOfCores(); i++) {
+            load += sts.getLoad(i);
+        }
+        for (int i = 0; i < this.system.getNumberOfIODevices(); i++) {
+            load += sts.getIOWaitQueue(i).size();
+            if (this.system.getIODevice(i).getBusyProcess() != null) load++;
+        }
+        return load;
+    }
+
+    /**
+     * @return the memory left once every job routed here is admitted
+     */
+    public long getFreeMemory() {
+        return this.system.getAvailableMemorySize() - this.system.getLongTermScheduler().getQueuedMemory();
+    }
+
+    /**
+     * @return whether the node can ever admit the job
+     */
+    public boolean fits(Job job) {
+        return job.memoryRequired <= this.system.getLongTermScheduler().getMaxJobMemory();
+    }
+
+    void submit(Job job) {
+        this.system.getLongTermScheduler().submit(job);
+        this.routed++;
+    }
+
+    void start() {
+        MultiprogrammingOS.start(this.system, new ListJobSource(Collections.emptyList()));
+    }
+
+    /**
+     * Runs until the clock reaches the end of the window or the node runs
+     * out of work.
+     */
+    void run(int until, boolean eventDriven) {
+        this.finished = false;
+        while (this.system.getClock() < until) {
+            if (!(eventDriven ? this.system.runToNextEvent(until) : this.system.run())) {
+                this.finished = true;
+                return;
+            }
+        }
+    }
+
+    public int getCompleted() {
+        return this.system.getProcessTable().count(ProcessState.TERMINATED);
+    }
+
+    public int getKilled() {
+        return this.system.getProcessTable().count(ProcessState.KILLED);
+    }
+
+    public long getBusyTime() {
+        long busyTime = 0;
+        for (int i = 0; i < this.system.getNumberOfCores(); i++) {
+            busyTime += this.system.getCPU(i).getBusyTime();
+        }
+        return busyTime;
+    }
+
+    public double getMeanTurnaroundTime() {
+        ProcessTable table = this.system.getProcessTable();
+        int terminated = table.count(ProcessState.TERMINATED);
+        double time = table.sum(ProcessTable.COMPLETION_TIME, ProcessState.TERMINATED)
+                - table.sum(ProcessTable.ARRIVAL_TIME, ProcessState.TERMINATED);
+        return terminated == 0 ? 0 : time / terminated;
+    }
+
+    /**
+     * @return whether this node has fewer processes per core than another
+     */
+    boolean isLessLoaded(Node other) {
+        return (long) this.getLoad() * other.getNumberOfCores() < (long) other.getLoad() * this.getNumberOfCores();
+    }
+}
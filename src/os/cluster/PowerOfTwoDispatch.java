@@ -0,0 +1,50 @@
+
+package os.cluster;
+
+import os.job.Job;
+import java.util.Random;
+
+/**
+ * Power of two choices: samples two different nodes at random and routes
+ * the job to the less loaded one, which comes close to least-loaded while
+ * looking at only two nodes.
+ *
+ * @author mnprtpsingh
+ */
+public class PowerOfTwoDispatch extends DispatchPolicy {
+    private final Random random;
+
+    public PowerOfTwoDispatch(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public String getName() {
+        return "power-of-two";
+    }
+
+    @Override
+    public Node select(Node[] nodes, Job job) {
+        int candidates = 0;
+        for (Node node : nodes) {
+            if (node.fits(job)) candidates++;
+        }
+        if (candidates <= 2) return getLeastLoaded(nodes, job);
+        int first = this.random.nextInt(candidates);
+        int second = this.random.nextInt(candidates - 1);
+        if (second >= first) second++;
+        Node a = this.get(nodes, job, first);
+        Node b = this.get(nodes, job, second);
+        return b.isLessLoaded(a) ? b : a;
+    }
+
+    /**
+     * @return the index-th node that fits the job
+     */
+    private Node get(Node[] nodes, Job job, int index) {
+        for (Node node : nodes) {
+            if (node.fits(job) && index-- == 0) return node;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+
+package os.cluster;
+
+import os.job.Job;
+
+/**
+ * Routes jobs to the nodes in turn, skipping nodes too small for the job.
+ *
+ * @author mnprtpsingh
+ */
+public class RoundRobinDispatch extends DispatchPolicy {
+    private int next;
+
+    public RoundRobinDispatch() {
+        this.next = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "round-robin";
+    }
+
+    @Override
+    public Node select(Node[] nodes, Job job) {
+        for (int i = 0; i < nodes.length; i++) {
+            Node node = nodes[(this.next + i) % nodes.length];
+            if (node.fits(job)) {
+                this.next = (node.id + 1) % nodes.length;
+                return node;
+            }
+        }
+        return null;
+    }
+}
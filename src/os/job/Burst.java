@@ -11,9 +11,13 @@ public class Burst {
     private int remainingTime;
        
     Burst(int time, BurstType type) {
+        this(time, type, time);
+    }
+       
+    Burst(int time, BurstType type, int remainingTime) {
         this.burstTime = time;
         this.burstType = type;
-        this.remainingTime = time;
+        this.remainingTime = remainingTime;
     }
     
     public int getBurstTime() {
@@ -28,7 +32,15 @@ public class Burst {
         return this.remainingTime;
     }
     
+    void setRemainingTime(int time) {
+        this.remainingTime = time;
+    }
+
     public void run() {
-        this.remainingTime--;
+        this.run(1);
+    }
+    
+    public void run(int time) {
+        this.remainingTime -= time;
     }
 }
@@ -12,6 +12,11 @@ public class CPU_Burst extends Burst {
         super(time, type);
         this.memoryRequired = memory;
     }
+       
+    CPU_Burst(int time, BurstType type, int memory, int remainingTime) {
+        super(time, type, remainingTime);
+        this.memoryRequired = memory;
+    }
     
     public int getMemoryRequired() {
         return this.memoryRequired;
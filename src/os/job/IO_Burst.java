@@ -1,4 +1,3 @@
-
 package os.job;
 
 /**
@@ -6,7 +5,26 @@ package os.job;
  * @author mnprtpsingh
  */
 public class IO_Burst extends Burst {
+    private final int device;
+
     public IO_Burst(int time, BurstType type) {
+        this(time, type, 0);
+    }
+
+    /**
+     * @param device the class of IO device that must serve this burst
+     */
+    public IO_Burst(int time, BurstType type, int device) {
         super(time, type);
+        this.device = device;
+    }
+
+    IO_Burst(int time, BurstType type, int device, int remainingTime) {
+        super(time, type, remainingTime);
+        this.device = device;
+    }
+
+    public int getDevice() {
+        return this.device;
     }
 }
@@ -1,25 +1,46 @@
 
 package os.job;
 
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
 import java.util.ArrayList;
+import java.io.IOException;
 
 /**
  *
  * @author mnprtpsingh
  */
 public class Job {
+    private static final BurstType[] TYPES = BurstType.values();
+
     private final String name;
     private final ArrayList<Burst> bursts;
+    private final JobStore store;
+    private final int firstBurst;
     private int currentBurst;
+    private int faultTime;
+    private int faultDevice;
     
+    public final int arrivalTime;
     public final int numberOfBurst;
     public final int totalCPUBurstTime;
     public final int totalIOBurstTime;
     public final int memoryRequired;
     
     public Job(String name, ArrayList<Burst> bursts) {
+        this(name, 0, bursts);
+    }
+
+    /**
+     * @param arrivalTime the tick at which the job reaches the long-term
+     * scheduler
+     */
+    public Job(String name, int arrivalTime, ArrayList<Burst> bursts) {
         this.name = name;
+        this.arrivalTime = arrivalTime;
         this.bursts = bursts;
+        this.store = null;
+        this.firstBurst = 0;
         this.numberOfBurst = bursts.size();
         
         CPU_Burst cpuBurst = (CPU_Burst) bursts.get(0);
@@ -37,6 +58,32 @@ public class Job {
         this.totalCPUBurstTime = CPUBurstTime;
         this.totalIOBurstTime = IOBurstTime;
         this.currentBurst = 0;
+        this.faultTime = -1;
+        this.faultDevice = 0;
+    }
+
+    Job(JobStore store, int index) {
+        this.name = store.getName(index);
+        this.arrivalTime = store.getArrivalTime(index);
+        this.bursts = null;
+        this.store = store;
+        this.firstBurst = store.getFirstBurst(index);
+        this.numberOfBurst = store.getNumberOfBursts(index);
+        this.memoryRequired = store.getMemoryRequired(this.firstBurst);
+
+        int CPUBurstTime = 0;
+        int IOBurstTime = 0;
+        for (int i = this.firstBurst; i < this.firstBurst + this.numberOfBurst; i++) {
+            BurstType type = store.getBurstType(i);
+            int time = store.getBurstTime(i);
+            if (type == BurstType.CPU_BURST) CPUBurstTime += time;
+            else if (type == BurstType.IO_BURST) IOBurstTime += time;
+        }
+        this.totalCPUBurstTime = CPUBurstTime;
+        this.totalIOBurstTime = IOBurstTime;
+        this.currentBurst = 0;
+        this.faultTime = -1;
+        this.faultDevice = 0;
     }
     
     public String getName() {
@@ -47,14 +94,139 @@ public class Job {
         return (this.currentBurst == this.numberOfBurst - 1);
     }
     
+    /**
+     * For jobs read from a JobStore the returned burst is a snapshot;
+     * use the burst accessors below to read or run the current burst.
+     */
     public Burst getBurst() {
         if (this.currentBurst >= this.numberOfBurst) return null;
-        return this.bursts.get(this.currentBurst);
+        return this.getBurst(this.currentBurst);
+    }
+    
+    public Burst getBurst(int index) {
+        if (this.store != null) return this.store.getBurst(this.firstBurst + index);
+        return this.bursts.get(index);
     }
     
     public Burst getNextBurst() {
-        if (this.isLastBurst()) return null;
-        this.currentBurst++;
+        if (!this.nextBurst()) return null;
         return this.getBurst();
     }
+
+    public int getBurstIndex() {
+        return this.currentBurst;
+    }
+
+    /**
+     * Interrupts the current burst with an IO burst that loads missing
+     * pages; the burst accessors below serve the fault until it ends.
+     */
+    public void fault(int time, int deviceClass) {
+        this.faultTime = time;
+        this.faultDevice = deviceClass;
+    }
+
+    public boolean isFaulting() {
+        return this.faultTime >= 0;
+    }
+
+    public void endFault() {
+        this.faultTime = -1;
+    }
+
+    public boolean nextBurst() {
+        if (this.isLastBurst()) return false;
+        this.currentBurst++;
+        return true;
+    }
+
+    public BurstType getBurstType() {
+        if (this.faultTime >= 0) return BurstType.IO_BURST;
+        if (this.store != null) return this.store.getBurstType(this.firstBurst + this.currentBurst);
+        return this.bursts.get(this.currentBurst).getBurstType();
+    }
+
+    public int getRemainingTime() {
+        if (this.faultTime >= 0) return this.faultTime;
+        if (this.store != null) return this.store.getRemainingTime(this.firstBurst + this.currentBurst);
+        return this.bursts.get(this.currentBurst).getRemainingTime();
+    }
+
+    /**
+     * @return the memory delta of the current burst, or 0 for an IO burst
+     */
+    public int getBurstMemoryRequired() {
+        if (this.faultTime >= 0) return 0;
+        if (this.store != null) return this.store.getMemoryRequired(this.firstBurst + this.currentBurst);
+        Burst burst = this.bursts.get(this.currentBurst);
+        if (burst.getBurstType() != BurstType.CPU_BURST) return 0;
+        return ((CPU_Burst) burst).getMemoryRequired();
+    }
+
+    /**
+     * @return the device class of the current burst, or 0 for a CPU burst
+     */
+    public int getBurstDevice() {
+        if (this.faultTime >= 0) return this.faultDevice;
+        if (this.store != null) return this.store.getDevice(this.firstBurst + this.currentBurst);
+        Burst burst = this.bursts.get(this.currentBurst);
+        if (burst.getBurstType() != BurstType.IO_BURST) return 0;
+        return ((IO_Burst) burst).getDevice();
+    }
+
+    public void setRemainingTime(int time) {
+        if (this.faultTime >= 0) this.faultTime = time;
+        else if (this.store != null) this.store.setRemainingTime(this.firstBurst + this.currentBurst, time);
+        else this.bursts.get(this.currentBurst).setRemainingTime(time);
+    }
+
+    public void runBurst(int time) {
+        if (this.faultTime >= 0) this.faultTime -= time;
+        else if (this.store != null) this.store.run(this.firstBurst + this.currentBurst, time);
+        else this.bursts.get(this.currentBurst).run(time);
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putString(this.name);
+        out.putInt(this.arrivalTime);
+        out.putInt(this.numberOfBurst);
+        out.putInt(this.currentBurst);
+        out.putInt(this.faultTime);
+        out.putInt(this.faultDevice);
+        for (int i = 0; i < this.numberOfBurst; i++) {
+            Burst burst = this.getBurst(i);
+            BurstType type = burst.getBurstType();
+            out.putByte(type.ordinal());
+            out.putInt(burst.getBurstTime());
+            out.putInt(burst.getRemainingTime());
+            if (type == BurstType.CPU_BURST) out.putInt(((CPU_Burst) burst).getMemoryRequired());
+            else out.putInt(((IO_Burst) burst).getDevice());
+        }
+    }
+
+    /**
+     * Jobs saved from a JobStore are restored as standalone jobs.
+     */
+    public static Job restore(CheckpointReader in) throws IOException {
+        String name = in.getString();
+        int arrivalTime = in.getInt();
+        int numberOfBurst = in.getInt();
+        int currentBurst = in.getInt();
+        int faultTime = in.getInt();
+        int faultDevice = in.getInt();
+        ArrayList<Burst> bursts = new ArrayList<>(numberOfBurst);
+        for (int i = 0; i < numberOfBurst; i++) {
+            BurstType type = TYPES[in.getByte()];
+            int time = in.getInt();
+            int remainingTime = in.getInt();
+            int argument = in.getInt();
+            if (type == BurstType.CPU_BURST) bursts.add(new CPU_Burst(time, type, argument, remainingTime));
+            else bursts.add(new IO_Burst(time, type, argument, remainingTime));
+        }
+        Job job = new Job(name, arrivalTime, bursts);
+        job.currentBurst = currentBurst;
+        job.faultTime = faultTime;
+        job.faultDevice = faultDevice;
+        return job;
+    }
 }
@@ -0,0 +1,16 @@
+
+package os.job;
+
+/**
+ * Supplies jobs to the long-term scheduler one at a time, so a workload
+ * never has to be held in memory as a whole.
+ *
+ * @author mnprtpsingh
+ */
+public interface JobSource {
+
+    /**
+     * @return the next job, or null when the source is exhausted
+     */
+    Job next();
+}
@@ -0,0 +1,194 @@
+
+package os.job;
+
+import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact, append-only store of jobs. Burst times, remaining times,
+ * arguments (the memory delta of a CPU burst or the device class of an IO
+ * burst) and types live in primitive arrays indexed by burst
+ * offset, and jobs are rows holding their arrival time and pointing at
+ * their first burst and at their UTF-8 encoded name. Job objects
+ * are only created as views when the store is read as a JobSource, so
+ * jobs waiting to be admitted cost a few bytes per burst.
+ *
+ * @author mnprtpsingh
+ */
+public class JobStore implements JobSource {
+    private byte[] names;
+    private int[] nameOffset;
+    private int[] firstBurst;
+    private int[] arrivalTime;
+    private int numberOfJobs;
+
+    private int[] burstTime;
+    private int[] remainingTime;
+    private int[] argument;
+    private byte[] burstType;
+    private int numberOfBursts;
+
+    private int nextJob;
+
+    private static final BurstType[] TYPES = BurstType.values();
+
+    public JobStore() {
+        this.names = new byte[256];
+        this.nameOffset = new int[17];
+        this.firstBurst = new int[17];
+        this.arrivalTime = new int[17];
+        this.numberOfJobs = 0;
+        this.burstTime = new int[64];
+        this.remainingTime = new int[64];
+        this.argument = new int[64];
+        this.burstType = new byte[64];
+        this.numberOfBursts = 0;
+        this.nextJob = 0;
+    }
+
+    public static JobStore load(JobSource source) {
+        JobStore store = new JobStore();
+        for (Job job = source.next(); job != null; job = source.next()) {
+            store.add(job);
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    public void trimToSize() {
+        int length = this.nameOffset[this.numberOfJobs];
+        this.names = Arrays.copyOf(this.names, length);
+        this.nameOffset = Arrays.copyOf(this.nameOffset, this.numberOfJobs + 1);
+        this.firstBurst = Arrays.copyOf(this.firstBurst, this.numberOfJobs + 1);
+        this.arrivalTime = Arrays.copyOf(this.arrivalTime, this.numberOfJobs + 1);
+        this.burstTime = Arrays.copyOf(this.burstTime, this.numberOfBursts);
+        this.remainingTime = Arrays.copyOf(this.remainingTime, this.numberOfBursts);
+        this.argument = Arrays.copyOf(this.argument, this.numberOfBursts);
+        this.burstType = Arrays.copyOf(this.burstType, this.numberOfBursts);
+    }
+
+    public int size() {
+        return this.numberOfJobs;
+    }
+
+    public void add(Job job) {
+        for (int i = 0; i < job.numberOfBurst; i++) {
+            Burst burst = job.getBurst(i);
+            int argument;
+            if (burst.getBurstType() == BurstType.CPU_BURST) argument = ((CPU_Burst) burst).getMemoryRequired();
+            else argument = ((IO_Burst) burst).getDevice();
+            this.addBurst(burst.getBurstType(), burst.getBurstTime(), argument);
+        }
+        this.addJob(job.getName(), job.arrivalTime);
+    }
+
+    /**
+     * @param argument the memory delta of a CPU burst or the device class
+     * of an IO burst
+     */
+    public void addBurst(BurstType type, int time, int argument) {
+        if (this.numberOfBursts == this.burstTime.length) {
+            int length = Math.max(this.numberOfBursts * 2, 64);
+            this.burstTime = Arrays.copyOf(this.burstTime, length);
+            this.remainingTime = Arrays.copyOf(this.remainingTime, length);
+            this.argument = Arrays.copyOf(this.argument, length);
+            this.burstType = Arrays.copyOf(this.burstType, length);
+        }
+        int i = this.numberOfBursts++;
+        this.burstTime[i] = time;
+        this.remainingTime[i] = time;
+        this.argument[i] = argument;
+        this.burstType[i] = (byte) type.ordinal();
+    }
+
+    public void addJob(String name) {
+        this.addJob(name, 0);
+    }
+
+    /**
+     * Closes the job made of the bursts added since the previous job.
+     */
+    public void addJob(String name, int arrivalTime) {
+        if (this.numberOfJobs + 1 == this.firstBurst.length) {
+            int length = Math.max(this.numberOfJobs * 2, 16) + 1;
+            this.nameOffset = Arrays.copyOf(this.nameOffset, length);
+            this.firstBurst = Arrays.copyOf(this.firstBurst, length);
+            this.arrivalTime = Arrays.copyOf(this.arrivalTime, length);
+        }
+        this.arrivalTime[this.numberOfJobs] = arrivalTime;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int offset = this.nameOffset[this.numberOfJobs];
+        if (offset + bytes.length > this.names.length) {
+            this.names = Arrays.copyOf(this.names, Math.max(this.names.length * 2, offset + bytes.length));
+        }
+        System.arraycopy(bytes, 0, this.names, offset, bytes.length);
+        this.numberOfJobs++;
+        this.nameOffset[this.numberOfJobs] = offset + bytes.length;
+        this.firstBurst[this.numberOfJobs] = this.numberOfBursts;
+    }
+
+    public Job getJob(int index) {
+        return new Job(this, index);
+    }
+
+    @Override
+    public Job next() {
+        if (this.nextJob == this.numberOfJobs) return null;
+        return this.getJob(this.nextJob++);
+    }
+
+    String getName(int job) {
+        int offset = this.nameOffset[job];
+        return new String(this.names, offset, this.nameOffset[job + 1] - offset, StandardCharsets.UTF_8);
+    }
+
+    int getArrivalTime(int job) {
+        return this.arrivalTime[job];
+    }
+
+    int getFirstBurst(int job) {
+        return this.firstBurst[job];
+    }
+
+    int getNumberOfBursts(int job) {
+        return this.firstBurst[job + 1] - this.firstBurst[job];
+    }
+
+    int getBurstTime(int burst) {
+        return this.burstTime[burst];
+    }
+
+    int getRemainingTime(int burst) {
+        return this.remainingTime[burst];
+    }
+
+    void run(int burst, int time) {
+        this.remainingTime[burst] -= time;
+    }
+
+    void setRemainingTime(int burst, int time) {
+        this.remainingTime[burst] = time;
+    }
+
+    int getMemoryRequired(int burst) {
+        if (this.burstType[burst] != BurstType.CPU_BURST.ordinal()) return 0;
+        return this.argument[burst];
+    }
+
+    int getDevice(int burst) {
+        if (this.burstType[burst] != BurstType.IO_BURST.ordinal()) return 0;
+        return this.argument[burst];
+    }
+
+    BurstType getBurstType(int burst) {
+        return TYPES[this.burstType[burst]];
+    }
+
+    Burst getBurst(int burst) {
+        BurstType type = this.getBurstType(burst);
+        if (type == BurstType.CPU_BURST) {
+            return new CPU_Burst(this.burstTime[burst], type, this.argument[burst], this.remainingTime[burst]);
+        }
+        return new IO_Burst(this.burstTime[burst], type, this.argument[burst], this.remainingTime[burst]);
+    }
+}
@@ -0,0 +1,22 @@
+
+package os.job;
+
+import java.util.Iterator;
+
+/**
+ *
+ * @author mnprtpsingh
+ */
+public class ListJobSource implements JobSource {
+    private final Iterator<Job> iterator;
+
+    public ListJobSource(Iterable<Job> jobs) {
+        this.iterator = jobs.iterator();
+    }
+
+    @Override
+    public Job next() {
+        if (!this.iterator.hasNext()) return null;
+        return this.iterator.next();
+    }
+}
@@ -0,0 +1,164 @@
+
+package os.job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads jobs from a trace file through a fixed-size buffer. Each line
+ * holds one job: its name, optionally followed by @&lt;arrival time&gt;,
+ * and then comma-separated bursts, written as
+ * C&lt;time&gt;:&lt;memory&gt; for CPU bursts and I&lt;time&gt; for IO bursts,
+ * optionally followed by @&lt;device class&gt;.
+ * Blank lines and lines starting with # are skipped.
+ *
+ * @author mnprtpsingh
+ */
+public class TraceJobSource implements JobSource, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] line;
+    private int length;
+    private int position;
+    private int lineNumber;
+    private boolean eof;
+
+    public TraceJobSource(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+        this.line = new byte[256];
+        this.lineNumber = 0;
+        this.eof = false;
+    }
+
+    private boolean readLine() throws IOException {
+        this.length = 0;
+        this.lineNumber++;
+        while (true) {
+            if (!this.buffer.hasRemaining()) {
+                if (this.eof) return this.length > 0;
+                this.buffer.clear();
+                if (this.channel.read(this.buffer) < 0) this.eof = true;
+                this.buffer.flip();
+                continue;
+            }
+            byte b = this.buffer.get();
+            if (b == '\n') return true;
+            if (b == '\r') continue;
+            if (this.length == this.line.length) {
+                this.line = Arrays.copyOf(this.line, this.length * 2);
+            }
+            this.line[this.length++] = b;
+        }
+    }
+
+    private int parseInt() {
+        boolean negative = false;
+        if (this.position < this.length && this.line[this.position] == '-') {
+            negative = true;
+            this.position++;
+        }
+        int value = 0;
+        int start = this.position;
+        while (this.position < this.length) {
+            byte b = this.line[this.position];
+            if (b < '0' || b > '9') break;
+            value = value * 10 + (b - '0');
+            this.position++;
+        }
+        if (this.position == start) throw this.error();
+        return negative ? -value : value;
+    }
+
+    private IllegalArgumentException error() {
+        String text = new String(this.line, 0, this.length, StandardCharsets.US_ASCII);
+        return new IllegalArgumentException("Malformed trace line " + this.lineNumber + ": " + text);
+    }
+
+    private Job parseJob() {
+        this.position = 0;
+        while (this.position < this.length && this.line[this.position] != ',' && this.line[this.position] != '@') {
+            this.position++;
+        }
+        String name = new String(this.line, 0, this.position, StandardCharsets.US_ASCII);
+        int arrivalTime = 0;
+        if (this.position < this.length && this.line[this.position] == '@') {
+            this.position++;
+            arrivalTime = this.parseInt();
+        }
+
+        ArrayList<Burst> bursts = new ArrayList<>();
+        while (this.position < this.length) {
+            if (this.line[this.position++] != ',') throw this.error();
+            if (this.position >= this.length) throw this.error();
+            byte type = this.line[this.position++];
+            int time = this.parseInt();
+            if (type == 'C') {
+                if (this.position >= this.length || this.line[this.position++] != ':') throw this.error();
+                bursts.add(new CPU_Burst(time, BurstType.CPU_BURST, this.parseInt()));
+            } else if (type == 'I') {
+                int device = 0;
+                if (this.position < this.length && this.line[this.position] == '@') {
+                    this.position++;
+                    device = this.parseInt();
+                }
+                bursts.add(new IO_Burst(time, BurstType.IO_BURST, device));
+            } else {
+                throw this.error();
+            }
+        }
+        if (bursts.isEmpty() || bursts.get(0).getBurstType() != BurstType.CPU_BURST) throw this.error();
+        return new Job(name, arrivalTime, bursts);
+    }
+
+    @Override
+    public Job next() {
+        try {
+            while (this.readLine()) {
+                if (this.length == 0 || this.line[0] == '#') continue;
+                return this.parseJob();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    public static void write(Iterable<Job> jobs, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            for (Job job : jobs) {
+                writer.write(job.getName());
+                if (job.arrivalTime != 0) writer.write("@" + job.arrivalTime);
+                for (int i = 0; i < job.numberOfBurst; i++) {
+                    Burst burst = job.getBurst(i);
+                    if (burst.getBurstType() == BurstType.CPU_BURST) {
+                        writer.write(",C" + burst.getBurstTime() + ":" + ((CPU_Burst) burst).getMemoryRequired());
+                    } else {
+                        writer.write(",I" + burst.getBurstTime());
+                        int device = ((IO_Burst) burst).getDevice();
+                        if (device != 0) writer.write("@" + device);
+                    }
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+
+package os.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log of process state transitions. Every transition is a
+ * fixed-size record of tick, pid, event and argument written into a
+ * memory-mapped segment of the file; segments are mapped one after
+ * another as the log grows, and written records are forced to disk in
+ * batches. A log cut short by a crash ends at the first empty record.
+ *
+ * @author mnprtpsingh
+ */
+public class EventJournal implements Closeable {
+    public static final int ADMIT = 1;
+    public static final int ALLOCATE = 2;
+    public static final int DISPATCH = 3;
+    public static final int CPU_TIME = 4;
+    public static final int IO_TIME = 5;
+    public static final int PREEMPT = 6;
+    public static final int IO_WAIT = 7;
+    public static final int MEMORY_WAIT = 8;
+    public static final int READY = 9;
+    public static final int KILL = 10;
+    public static final int TERMINATE = 11;
+    public static final int SWAP_OUT = 12;
+    public static final int SWAP_IN = 13;
+    public static final int PAGE_FAULT = 14;
+
+    static final int MAGIC = 0x4F53454A;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 16;
+    static final int SEGMENT_SIZE = RECORD_SIZE << 18;
+    private static final int FLUSH_RECORDS = 1 << 16;
+
+    private final FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int unflushed;
+    private long records;
+
+    /**
+     * @param seed the seed of the workload, kept so that the run can be
+     * reproduced
+     */
+    public EventJournal(Path path, int cores, long seed) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(RECORD_SIZE);
+        header.putInt(cores);
+        header.putLong(seed);
+        header.flip();
+        while (header.hasRemaining()) this.channel.write(header);
+        this.segmentStart = HEADER_SIZE;
+        this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, this.segmentStart, SEGMENT_SIZE);
+        this.unflushed = 0;
+        this.records = 0;
+    }
+
+    public long getRecords() {
+        return this.records;
+    }
+
+    public void record(int tick, int pid, int event, int argument) {
+        if (!this.segment.hasRemaining()) this.nextSegment();
+        this.segment.putInt(tick);
+        this.segment.putInt(pid);
+        this.segment.putInt(event);
+        this.segment.putInt(argument);
+        this.records++;
+        if (++this.unflushed == FLUSH_RECORDS) {
+            this.segment.force();
+            this.unflushed = 0;
+        }
+    }
+
+    private void nextSegment() {
+        try {
+            this.segment.force();
+            this.unflushed = 0;
+            this.segmentStart += SEGMENT_SIZE;
+            this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, this.segmentStart, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.segment.force();
+            this.channel.truncate(HEADER_SIZE + this.records * RECORD_SIZE);
+        } finally {
+            this.channel.close();
+        }
+    }
+}
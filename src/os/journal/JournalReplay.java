@@ -0,0 +1,175 @@
+
+package os.journal;
+
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Rebuilds the statistics of a run from its event journal without
+ * simulating it again. The process table is filled in the same way the
+ * processes filled it during the run; only job names are not journaled.
+ *
+ * @author mnprtpsingh
+ */
+public class JournalReplay {
+    private final int numberOfCores;
+    private final long seed;
+    private final ProcessTable table;
+    private final HashMap<Integer, Integer> slots;
+    private final long[] busyTime;
+    private int[] cores;
+    private long records;
+    private int clock;
+
+    private JournalReplay(int numberOfCores, long seed) {
+        this.numberOfCores = numberOfCores;
+        this.seed = seed;
+        this.table = new ProcessTable();
+        this.slots = new HashMap<>();
+        this.busyTime = new long[numberOfCores];
+        this.cores = new int[1024];
+        this.records = 0;
+        this.clock = 0;
+    }
+
+    public static JournalReplay load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < EventJournal.HEADER_SIZE) throw new IOException("Not an event journal: " + path);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, EventJournal.HEADER_SIZE);
+            if (header.getInt() != EventJournal.MAGIC) throw new IOException("Not an event journal: " + path);
+            int version = header.getInt();
+            if (version != EventJournal.VERSION) throw new IOException("Unsupported journal version: " + version);
+            if (header.getInt() != EventJournal.RECORD_SIZE) throw new IOException("Unexpected journal record size");
+            int cores = header.getInt();
+            JournalReplay replay = new JournalReplay(cores, header.getLong());
+
+            long position = EventJournal.HEADER_SIZE;
+            while (position < size) {
+                long length = Math.min(EventJournal.SEGMENT_SIZE, size - position);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                while (segment.remaining() >= EventJournal.RECORD_SIZE) {
+                    int tick = segment.getInt();
+                    int pid = segment.getInt();
+                    int event = segment.getInt();
+                    int argument = segment.getInt();
+                    if (event == 0) return replay;
+                    replay.apply(tick, pid, event, argument);
+                }
+                position += length;
+            }
+            return replay;
+        }
+    }
+
+    private void apply(int tick, int pid, int event, int argument) {
+        this.records++;
+        this.clock = Math.max(this.clock, tick);
+        if (event == EventJournal.ADMIT) {
+            int slot = this.table.add(pid, tick, 0, "", argument);
+            this.slots.put(pid, slot);
+            if (slot >= this.cores.length) this.cores = Arrays.copyOf(this.cores, this.cores.length * 2);
+            return;
+        }
+
+        int slot = this.slots.get(pid);
+        switch (event) {
+            case EventJournal.ALLOCATE:
+                this.table.add(ProcessTable.MEMORY_ALLOCATED, slot, argument);
+                break;
+            case EventJournal.DISPATCH:
+                this.table.setState(slot, ProcessState.RUNNING);
+                if (this.table.get(ProcessTable.TIMES_IN_CPU, slot) == 0) {
+                    this.table.set(ProcessTable.RESPONSE_TIME, slot, tick - this.table.get(ProcessTable.ARRIVAL_TIME, slot));
+                }
+                this.table.add(ProcessTable.TIMES_IN_CPU, slot, 1);
+                this.cores[slot] = argument;
+                break;
+            case EventJournal.CPU_TIME:
+                this.table.add(ProcessTable.TIME_SPENT_IN_CPU, slot, argument);
+                this.busyTime[this.cores[slot]] += argument;
+                break;
+            case EventJournal.IO_TIME:
+                this.table.add(ProcessTable.TIME_SPENT_IN_IO, slot, argument);
+                break;
+            case EventJournal.PREEMPT:
+                if (argument == 0) {
+                    this.table.setState(slot, ProcessState.READY);
+                    this.table.add(ProcessTable.TIMES_PREEMPTED, slot, 1);
+                } else this.table.setState(slot, ProcessState.WAITING);
+                break;
+            case EventJournal.IO_WAIT:
+                this.table.setState(slot, ProcessState.WAITING);
+                this.table.add(ProcessTable.TIMES_IN_IO, slot, 1);
+                break;
+            case EventJournal.MEMORY_WAIT:
+                this.table.setState(slot, ProcessState.WAITING);
+                this.table.add(ProcessTable.TIMES_WAITED, slot, 1);
+                break;
+            case EventJournal.READY:
+                this.table.setState(slot, ProcessState.READY);
+                this.table.add(ProcessTable.MEMORY_ALLOCATED, slot, argument);
+                break;
+            case EventJournal.SWAP_OUT:
+                this.table.setState(slot, ProcessState.SUSPENDED);
+                break;
+            case EventJournal.SWAP_IN:
+            case EventJournal.PAGE_FAULT:
+                this.table.setState(slot, ProcessState.WAITING);
+                break;
+            case EventJournal.KILL:
+                this.table.setState(slot, ProcessState.KILLED);
+                this.table.set(ProcessTable.COMPLETION_TIME, slot, tick);
+                break;
+            case EventJournal.TERMINATE:
+                this.table.setState(slot, ProcessState.TERMINATED);
+                this.table.set(ProcessTable.COMPLETION_TIME, slot, tick);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown journal event: " + event);
+        }
+    }
+
+    public ProcessTable getProcessTable() {
+        return this.table;
+    }
+
+    public int getNumberOfCores() {
+        return this.numberOfCores;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public long getRecords() {
+        return this.records;
+    }
+
+    /**
+     * @return the tick of the last journaled transition, which is the end
+     * of the run
+     */
+    public int getClock() {
+        return this.clock;
+    }
+
+    public double getCPUUtilization() {
+        long busyTime = 0;
+        for (long time : this.busyTime) {
+            busyTime += time;
+        }
+        return (double) busyTime / this.clock / this.numberOfCores;
+    }
+
+    public double getCPUUtilization(int core) {
+        return (double) this.busyTime[core] / this.clock;
+    }
+}
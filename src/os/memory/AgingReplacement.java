@@ -0,0 +1,49 @@
+
+package os.memory;
+
+/**
+ * Approximates least recently used with aging: every interval each frame
+ * shifts its reference bit into an 8-bit age, and the frame with the
+ * lowest age is evicted, the one loaded first on a tie.
+ *
+ * @author mnprtpsingh
+ */
+public class AgingReplacement extends ReplacementPolicy {
+    private final int interval;
+
+    public AgingReplacement(int interval) {
+        if (interval <= 0) throw new IllegalArgumentException("Aging interval must be positive: " + interval);
+        this.interval = interval;
+    }
+
+    @Override
+    public String getName() {
+        return "lru:" + this.interval;
+    }
+
+    @Override
+    public int getInterval() {
+        return this.interval;
+    }
+
+    @Override
+    public void tick(FrameTable frames, int clock) {
+        for (int frame = 0; frame < frames.size; frame++) {
+            frames.ages[frame] = (frames.ages[frame] >>> 1) | (frames.referenced[frame] ? 0x80 : 0);
+            frames.referenced[frame] = false;
+        }
+    }
+
+    @Override
+    public int select(FrameTable frames, int clock) {
+        int victim = -1;
+        for (int frame = 0; frame < frames.size; frame++) {
+            if (!frames.isEvictable(frame)) continue;
+            if (victim < 0 || frames.ages[frame] < frames.ages[victim]
+                    || frames.ages[frame] == frames.ages[victim] && frames.loadTime[frame] < frames.loadTime[victim]) {
+                victim = frame;
+            }
+        }
+        return victim;
+    }
+}
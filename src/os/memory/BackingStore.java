@@ -0,0 +1,129 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Swap space kept in a scratch file. The space is managed in memory units
+ * by a first-fit allocator, each unit takes UNIT_BYTES of the file, and an
+ * image starts with the pid and size it was written for, which are checked
+ * when it is read back. The file is deleted when the store is closed.
+ *
+ * @author mnprtpsingh
+ */
+public class BackingStore implements Closeable {
+    public static final int UNIT_BYTES = 64;
+
+    private final FileChannel channel;
+    private final FirstFitAllocator space;
+    private final int capacity;
+    private final ByteBuffer buffer;
+
+    public BackingStore(Path path, int capacity) throws IOException {
+        if (capacity <= 0) throw new IllegalArgumentException("Swap capacity must be positive: " + capacity);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+        this.space = new FirstFitAllocator(capacity, 0);
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(UNIT_BYTES * 256);
+    }
+
+    public static BackingStore createTemporary(int capacity) throws IOException {
+        return new BackingStore(Files.createTempFile("swap", ".bin"), capacity);
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int getFreeSpace() {
+        return this.space.getFreeMemory();
+    }
+
+    /**
+     * @return the address of the written image, or -1 if the store is full
+     */
+    public int write(int pid, int size) {
+        int address = this.space.allocate(size);
+        if (address >= 0) this.writeImage(address, pid, size);
+        return address;
+    }
+
+    private void writeImage(int address, int pid, int size) {
+        try {
+            long position = (long) address * UNIT_BYTES;
+            long end = position + (long) size * UNIT_BYTES;
+            this.buffer.clear();
+            this.buffer.putInt(pid);
+            this.buffer.putInt(size);
+            while (this.buffer.hasRemaining()) this.buffer.put((byte) 0);
+            while (position < end) {
+                this.buffer.position(0);
+                this.buffer.limit((int) Math.min(this.buffer.capacity(), end - position));
+                while (this.buffer.hasRemaining()) position += this.channel.write(this.buffer, position);
+                this.buffer.putLong(0, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads an image back and releases its space.
+     */
+    public void read(int address, int pid, int size) {
+        try {
+            long position = (long) address * UNIT_BYTES;
+            long end = position + (long) size * UNIT_BYTES;
+            boolean header = true;
+            while (position < end) {
+                this.buffer.clear();
+                this.buffer.limit((int) Math.min(this.buffer.capacity(), end - position));
+                while (this.buffer.hasRemaining()) {
+                    int n = this.channel.read(this.buffer, position);
+                    if (n < 0) throw new IOException("Truncated swap image of process " + pid);
+                    position += n;
+                }
+                if (header && (this.buffer.getInt(0) != pid || this.buffer.getInt(4) != size)) {
+                    throw new IOException("Corrupt swap image of process " + pid);
+                }
+                header = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.space.free(address, size);
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        this.space.save(out);
+    }
+
+    /**
+     * Restores the free space only; the caller rewrites the saved images.
+     */
+    public void restore(CheckpointReader in) throws IOException {
+        this.space.restore(in);
+    }
+
+    /**
+     * Writes an image at the address it had when it was saved.
+     */
+    public void rewrite(int address, int pid, int size) {
+        this.writeImage(address, pid, size);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
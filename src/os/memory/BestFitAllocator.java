@@ -0,0 +1,20 @@
+
+package os.memory;
+
+/**
+ *
+ * @author mnprtpsingh
+ */
+public class BestFitAllocator extends FreeListAllocator {
+
+    public BestFitAllocator(int capacity, int reserved) {
+        super(capacity, reserved);
+    }
+
+    @Override
+    protected int findHole(int size) {
+        Long hole = this.holesBySize.ceiling(key(size, 0));
+        if (hole == null) return -1;
+        return (int) (hole & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,108 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+/**
+ * Binary buddy allocator: requests are rounded up to a power of two and
+ * freed blocks are merged with their buddies, one order at a time.
+ *
+ * @author mnprtpsingh
+ */
+public class BuddyAllocator implements MemoryAllocator {
+    private final int maxOrder;
+    private final ArrayList<TreeSet<Integer>> freeLists;
+    private int freeMemory;
+
+    public BuddyAllocator(int capacity, int reserved) {
+        this.maxOrder = 31 - Integer.numberOfLeadingZeros(capacity);
+        this.freeLists = new ArrayList<>();
+        for (int i = 0; i <= this.maxOrder; i++) {
+            this.freeLists.add(new TreeSet<>());
+        }
+        this.freeMemory = 0;
+
+        int address = reserved;
+        while (address < capacity) {
+            int order = Math.min(Integer.numberOfTrailingZeros(address), this.maxOrder);
+            while (address + (1 << order) > capacity) order--;
+            this.freeLists.get(order).add(address);
+            this.freeMemory += 1 << order;
+            address += 1 << order;
+        }
+    }
+
+    private static int orderOf(int size) {
+        if (size <= 1) return 0;
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    @Override
+    public int allocate(int size) {
+        int order = orderOf(size);
+        int current = order;
+        while (current <= this.maxOrder && this.freeLists.get(current).isEmpty()) current++;
+        if (current > this.maxOrder) return -1;
+
+        int address = this.freeLists.get(current).pollFirst();
+        while (current > order) {
+            current--;
+            this.freeLists.get(current).add(address + (1 << current));
+        }
+        this.freeMemory -= 1 << order;
+        return address;
+    }
+
+    @Override
+    public void free(int address, int size) {
+        int order = orderOf(size);
+        this.freeMemory += 1 << order;
+        while (order < this.maxOrder) {
+            int buddy = address ^ (1 << order);
+            if (!this.freeLists.get(order).remove(buddy)) break;
+            address = Math.min(address, buddy);
+            order++;
+        }
+        this.freeLists.get(order).add(address);
+    }
+
+    @Override
+    public int getFreeMemory() {
+        return this.freeMemory;
+    }
+
+    @Override
+    public int getLargestFreeBlock() {
+        for (int order = this.maxOrder; order >= 0; order--) {
+            if (!this.freeLists.get(order).isEmpty()) return 1 << order;
+        }
+        return 0;
+    }
+
+    @Override
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.freeMemory);
+        for (TreeSet<Integer> freeList : this.freeLists) {
+            out.putInt(freeList.size());
+            for (int address : freeList) {
+                out.putInt(address);
+            }
+        }
+    }
+
+    @Override
+    public void restore(CheckpointReader in) throws IOException {
+        this.freeMemory = in.getInt();
+        for (TreeSet<Integer> freeList : this.freeLists) {
+            freeList.clear();
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                freeList.add(in.getInt());
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ * Second chance: the hand sweeps the frames, clearing reference bits,
+ * and evicts the first frame it finds unreferenced.
+ *
+ * @author mnprtpsingh
+ */
+public class ClockReplacement extends ReplacementPolicy {
+    private int hand;
+
+    public ClockReplacement() {
+        this.hand = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "clock";
+    }
+
+    @Override
+    public int select(FrameTable frames, int clock) {
+        for (int i = 0; i <= 2 * frames.size; i++) {
+            int frame = this.hand;
+            this.hand = (this.hand + 1) % frames.size;
+            if (!frames.isEvictable(frame)) continue;
+            if (!frames.referenced[frame]) return frame;
+            frames.referenced[frame] = false;
+        }
+        return -1;
+    }
+
+    @Override
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.hand);
+    }
+
+    @Override
+    public void restore(CheckpointReader in) throws IOException {
+        this.hand = in.getInt();
+    }
+}
@@ -0,0 +1,25 @@
+
+package os.memory;
+
+/**
+ * Evicts the page that was loaded first.
+ *
+ * @author mnprtpsingh
+ */
+public class FifoReplacement extends ReplacementPolicy {
+
+    @Override
+    public String getName() {
+        return "fifo";
+    }
+
+    @Override
+    public int select(FrameTable frames, int clock) {
+        int victim = -1;
+        for (int frame = 0; frame < frames.size; frame++) {
+            if (!frames.isEvictable(frame)) continue;
+            if (victim < 0 || frames.loadTime[frame] < frames.loadTime[victim]) victim = frame;
+        }
+        return victim;
+    }
+}
@@ -0,0 +1,24 @@
+
+package os.memory;
+
+import java.util.Map;
+
+/**
+ *
+ * @author mnprtpsingh
+ */
+public class FirstFitAllocator extends FreeListAllocator {
+
+    public FirstFitAllocator(int capacity, int reserved) {
+        super(capacity, reserved);
+    }
+
+    @Override
+    protected int findHole(int size) {
+        if (this.getLargestFreeBlock() < size) return -1;
+        for (Map.Entry<Integer, Integer> hole : this.holes.entrySet()) {
+            if (hole.getValue() >= size) return hole.getKey();
+        }
+        return -1;
+    }
+}
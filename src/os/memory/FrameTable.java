@@ -0,0 +1,136 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.io.IOException;
+
+/**
+ * The physical page frames: which process slot and page each frame holds,
+ * with the reference bit, last reference, load time and age that the
+ * replacement policies choose victims by. Pinned frames are never
+ * chosen.
+ *
+ * @author mnprtpsingh
+ */
+public class FrameTable {
+    public final int size;
+    final int[] owners;
+    final int[] pages;
+    final boolean[] referenced;
+    final int[] lastUse;
+    final int[] loadTime;
+    final int[] ages;
+    private final int[] free;
+    private int numberOfFree;
+    private IntPredicate pinned;
+    private IntConsumer evicted;
+
+    public FrameTable(int size) {
+        if (size <= 0) throw new IllegalArgumentException("Number of frames must be positive: " + size);
+        this.size = size;
+        this.owners = new int[size];
+        this.pages = new int[size];
+        this.referenced = new boolean[size];
+        this.lastUse = new int[size];
+        this.loadTime = new int[size];
+        this.ages = new int[size];
+        this.free = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.owners[i] = -1;
+            this.free[i] = size - 1 - i;
+        }
+        this.numberOfFree = size;
+        this.pinned = frame -> false;
+        this.evicted = frame -> { };
+    }
+
+    /**
+     * @param pinned tells which frames must stay loaded
+     * @param evicted called with each frame a policy evicts on its own,
+     * before the frame is freed
+     */
+    public void setListeners(IntPredicate pinned, IntConsumer evicted) {
+        this.pinned = pinned;
+        this.evicted = evicted;
+    }
+
+    public int getNumberOfFree() {
+        return this.numberOfFree;
+    }
+
+    public int getOwner(int frame) {
+        return this.owners[frame];
+    }
+
+    public int getPage(int frame) {
+        return this.pages[frame];
+    }
+
+    public boolean isEvictable(int frame) {
+        return this.owners[frame] >= 0 && !this.pinned.test(frame);
+    }
+
+    /**
+     * @return a free frame, or -1 if every frame is in use
+     */
+    public int allocate() {
+        if (this.numberOfFree == 0) return -1;
+        return this.free[--this.numberOfFree];
+    }
+
+    public void load(int frame, int slot, int page, int clock) {
+        this.owners[frame] = slot;
+        this.pages[frame] = page;
+        this.referenced[frame] = true;
+        this.lastUse[frame] = clock;
+        this.loadTime[frame] = clock;
+        this.ages[frame] = 0x80;
+    }
+
+    public void reference(int frame, int clock) {
+        this.referenced[frame] = true;
+        this.lastUse[frame] = clock;
+    }
+
+    public void free(int frame) {
+        this.owners[frame] = -1;
+        this.free[this.numberOfFree++] = frame;
+    }
+
+    /**
+     * Evicts a frame on behalf of a policy.
+     */
+    void evict(int frame) {
+        this.evicted.accept(frame);
+        this.free(frame);
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInts(this.owners, this.size);
+        out.putInts(this.pages, this.size);
+        for (int i = 0; i < this.size; i++) {
+            out.putBoolean(this.referenced[i]);
+        }
+        out.putInts(this.lastUse, this.size);
+        out.putInts(this.loadTime, this.size);
+        out.putInts(this.ages, this.size);
+        out.putInts(this.free, this.numberOfFree);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        System.arraycopy(in.getInts(), 0, this.owners, 0, this.size);
+        System.arraycopy(in.getInts(), 0, this.pages, 0, this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.referenced[i] = in.getBoolean();
+        }
+        System.arraycopy(in.getInts(), 0, this.lastUse, 0, this.size);
+        System.arraycopy(in.getInts(), 0, this.loadTime, 0, this.size);
+        System.arraycopy(in.getInts(), 0, this.ages, 0, this.size);
+        int[] free = in.getInts();
+        System.arraycopy(free, 0, this.free, 0, free.length);
+        this.numberOfFree = free.length;
+    }
+}
@@ -0,0 +1,107 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the holes ordered both by address, for coalescing, and by size,
+ * for best-fit search and the largest free block.
+ *
+ * @author mnprtpsingh
+ */
+public abstract class FreeListAllocator implements MemoryAllocator {
+    protected final TreeMap<Integer, Integer> holes;
+    protected final TreeSet<Long> holesBySize;
+    private int freeMemory;
+
+    protected FreeListAllocator(int capacity, int reserved) {
+        this.holes = new TreeMap<>();
+        this.holesBySize = new TreeSet<>();
+        this.freeMemory = 0;
+        this.addHole(reserved, capacity - reserved);
+    }
+
+    protected static long key(int size, int address) {
+        return ((long) size << 32) | address;
+    }
+
+    private void addHole(int address, int size) {
+        this.holes.put(address, size);
+        this.holesBySize.add(key(size, address));
+        this.freeMemory += size;
+    }
+
+    private void removeHole(int address, int size) {
+        this.holes.remove(address);
+        this.holesBySize.remove(key(size, address));
+        this.freeMemory -= size;
+    }
+
+    /**
+     * @return the address of a hole of at least the given size, or -1
+     */
+    protected abstract int findHole(int size);
+
+    @Override
+    public int allocate(int size) {
+        int address = this.findHole(size);
+        if (address < 0) return -1;
+        int holeSize = this.holes.get(address);
+        this.removeHole(address, holeSize);
+        if (holeSize > size) this.addHole(address + size, holeSize - size);
+        return address;
+    }
+
+    @Override
+    public void free(int address, int size) {
+        Map.Entry<Integer, Integer> lower = this.holes.lowerEntry(address);
+        if (lower != null && lower.getKey() + lower.getValue() == address) {
+            this.removeHole(lower.getKey(), lower.getValue());
+            address = lower.getKey();
+            size += lower.getValue();
+        }
+        Integer higher = this.holes.get(address + size);
+        if (higher != null) {
+            this.removeHole(address + size, higher);
+            size += higher;
+        }
+        this.addHole(address, size);
+    }
+
+    @Override
+    public int getFreeMemory() {
+        return this.freeMemory;
+    }
+
+    @Override
+    public int getLargestFreeBlock() {
+        if (this.holesBySize.isEmpty()) return 0;
+        return (int) (this.holesBySize.last() >>> 32);
+    }
+
+    @Override
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.holes.size());
+        for (Map.Entry<Integer, Integer> hole : this.holes.entrySet()) {
+            out.putInt(hole.getKey());
+            out.putInt(hole.getValue());
+        }
+    }
+
+    @Override
+    public void restore(CheckpointReader in) throws IOException {
+        this.holes.clear();
+        this.holesBySize.clear();
+        this.freeMemory = 0;
+        int n = in.getInt();
+        for (int i = 0; i < n; i++) {
+            int address = in.getInt();
+            this.addHole(address, in.getInt());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ *
+ * @author mnprtpsingh
+ */
+public interface MemoryAllocator {
+
+    /**
+     * @return the address of the allocated block, or -1 if no block fits
+     */
+    int allocate(int size);
+
+    void free(int address, int size);
+
+    int getFreeMemory();
+
+    int getLargestFreeBlock();
+
+    void save(CheckpointWriter out) throws IOException;
+
+    /**
+     * Replaces the free space with the one saved by save.
+     */
+    void restore(CheckpointReader in) throws IOException;
+}
@@ -0,0 +1,123 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ * Places memory through a pluggable allocator and keeps the allocation
+ * and fragmentation counters.
+ *
+ * @author mnprtpsingh
+ */
+public class MemoryManager {
+    private final MemoryAllocator allocator;
+    private final String name;
+    private int allocations;
+    private int failedAllocations;
+    private double fragmentation;
+    private double peakFragmentation;
+
+    public MemoryManager(MemoryAllocator allocator, String name) {
+        this.allocator = allocator;
+        this.name = name;
+        this.allocations = 0;
+        this.failedAllocations = 0;
+        this.fragmentation = 0;
+        this.peakFragmentation = 0;
+    }
+
+    public static MemoryManager create(String name, int ram, int osMemorySize) {
+        MemoryAllocator allocator;
+        switch (name) {
+            case "first-fit":
+                allocator = new FirstFitAllocator(ram, osMemorySize);
+                break;
+            case "best-fit":
+                allocator = new BestFitAllocator(ram, osMemorySize);
+                break;
+            case "buddy":
+                allocator = new BuddyAllocator(ram, osMemorySize);
+                break;
+            case "pooled":
+                allocator = new PooledAllocator(ram, osMemorySize);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown memory allocator: " + name);
+        }
+        return new MemoryManager(allocator, name);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the address of the allocated block, or -1 if no block fits
+     */
+    public int allocate(int size) {
+        double current = this.getFragmentation();
+        this.fragmentation += current;
+        this.peakFragmentation = Math.max(this.peakFragmentation, current);
+        this.allocations++;
+
+        int address = this.allocator.allocate(size);
+        if (address < 0) this.failedAllocations++;
+        return address;
+    }
+
+    public void free(int address, int size) {
+        this.allocator.free(address, size);
+    }
+
+    public int getFreeMemory() {
+        return this.allocator.getFreeMemory();
+    }
+
+    public int getLargestFreeBlock() {
+        return this.allocator.getLargestFreeBlock();
+    }
+
+    /**
+     * @return the share of free memory that lies outside the largest hole
+     */
+    public double getFragmentation() {
+        int free = this.getFreeMemory();
+        if (free == 0) return 0;
+        return 1 - (double) this.getLargestFreeBlock() / free;
+    }
+
+    public double getMeanFragmentation() {
+        if (this.allocations == 0) return 0;
+        return this.fragmentation / this.allocations;
+    }
+
+    public double getPeakFragmentation() {
+        return this.peakFragmentation;
+    }
+
+    public int getAllocations() {
+        return this.allocations;
+    }
+
+    public int getFailedAllocations() {
+        return this.failedAllocations;
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.allocations);
+        out.putInt(this.failedAllocations);
+        out.putDouble(this.fragmentation);
+        out.putDouble(this.peakFragmentation);
+        this.allocator.save(out);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        this.allocations = in.getInt();
+        this.failedAllocations = in.getInt();
+        this.fragmentation = in.getDouble();
+        this.peakFragmentation = in.getDouble();
+        this.allocator.restore(in);
+    }
+}
@@ -0,0 +1,51 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ * Counts memory without placing it, so it never fragments.
+ *
+ * @author mnprtpsingh
+ */
+public class PooledAllocator implements MemoryAllocator {
+    private int freeMemory;
+
+    public PooledAllocator(int capacity, int reserved) {
+        this.freeMemory = capacity - reserved;
+    }
+
+    @Override
+    public int allocate(int size) {
+        if (size > this.freeMemory) return -1;
+        this.freeMemory -= size;
+        return 0;
+    }
+
+    @Override
+    public void free(int address, int size) {
+        this.freeMemory += size;
+    }
+
+    @Override
+    public int getFreeMemory() {
+        return this.freeMemory;
+    }
+
+    @Override
+    public int getLargestFreeBlock() {
+        return this.freeMemory;
+    }
+
+    @Override
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.freeMemory);
+    }
+
+    @Override
+    public void restore(CheckpointReader in) throws IOException {
+        this.freeMemory = in.getInt();
+    }
+}
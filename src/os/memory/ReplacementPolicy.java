@@ -0,0 +1,65 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ * Chooses the frame to give up when a page must be loaded and every frame
+ * is in use. Written on the command line as its name, optionally followed
+ * by its interval: fifo, clock, lru:50 or working-set:500. A policy that
+ * looks at the frames periodically announces its interval, so the
+ * event-driven loop stops at every tick it needs.
+ *
+ * @author mnprtpsingh
+ */
+public abstract class ReplacementPolicy {
+
+    public static ReplacementPolicy create(String spec) {
+        int colon = spec.indexOf(':');
+        String name = colon < 0 ? spec : spec.substring(0, colon);
+        try {
+            switch (name) {
+                case "fifo":
+                    return new FifoReplacement();
+                case "clock":
+                    return new ClockReplacement();
+                case "lru":
+                    return new AgingReplacement(colon < 0 ? 50 : Integer.parseInt(spec.substring(colon + 1)));
+                case "working-set":
+                    return new WorkingSetReplacement(colon < 0 ? 500 : Integer.parseInt(spec.substring(colon + 1)));
+                default:
+                    throw new IllegalArgumentException("Unknown replacement policy: " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid replacement policy: " + spec, e);
+        }
+    }
+
+    /**
+     * @return the spec this policy is created from
+     */
+    public abstract String getName();
+
+    /**
+     * @return an evictable frame, or -1 if there is none
+     */
+    public abstract int select(FrameTable frames, int clock);
+
+    /**
+     * @return ticks between two calls of tick, or 0 if it is never called
+     */
+    public int getInterval() {
+        return 0;
+    }
+
+    public void tick(FrameTable frames, int clock) {
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+    }
+}
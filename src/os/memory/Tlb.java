@@ -0,0 +1,85 @@
+
+package os.memory;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.util.Arrays;
+import java.io.IOException;
+
+/**
+ * A fully associative translation lookaside buffer of one core. Entries
+ * are tagged with the process slot, so they survive context switches,
+ * and the least recently used entry is replaced on a miss.
+ *
+ * @author mnprtpsingh
+ */
+public class Tlb {
+    private final int[] slots;
+    private final int[] pages;
+    private final long[] stamps;
+    private long stamp;
+
+    public Tlb(int size) {
+        if (size <= 0) throw new IllegalArgumentException("TLB size must be positive: " + size);
+        this.slots = new int[size];
+        this.pages = new int[size];
+        this.stamps = new long[size];
+        Arrays.fill(this.slots, -1);
+        this.stamp = 0;
+    }
+
+    public int size() {
+        return this.slots.length;
+    }
+
+    /**
+     * @return whether the translation was cached; it is cached afterwards
+     */
+    public boolean lookup(int slot, int page) {
+        this.stamp++;
+        int victim = 0;
+        for (int i = 0; i < this.slots.length; i++) {
+            if (this.slots[i] == slot && this.pages[i] == page) {
+                this.stamps[i] = this.stamp;
+                return true;
+            }
+            if (this.stamps[i] < this.stamps[victim]) victim = i;
+        }
+        this.slots[victim] = slot;
+        this.pages[victim] = page;
+        this.stamps[victim] = this.stamp;
+        return false;
+    }
+
+    public void invalidate(int slot, int page) {
+        for (int i = 0; i < this.slots.length; i++) {
+            if (this.slots[i] == slot && this.pages[i] == page) {
+                this.slots[i] = -1;
+                this.stamps[i] = 0;
+            }
+        }
+    }
+
+    public void invalidate(int slot) {
+        for (int i = 0; i < this.slots.length; i++) {
+            if (this.slots[i] == slot) {
+                this.slots[i] = -1;
+                this.stamps[i] = 0;
+            }
+        }
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInts(this.slots, this.slots.length);
+        out.putInts(this.pages, this.pages.length);
+        out.putLongs(this.stamps, this.stamps.length);
+        out.putLong(this.stamp);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        System.arraycopy(in.getInts(), 0, this.slots, 0, this.slots.length);
+        System.arraycopy(in.getInts(), 0, this.pages, 0, this.pages.length);
+        System.arraycopy(in.getLongs(), 0, this.stamps, 0, this.stamps.length);
+        this.stamp = in.getLong();
+    }
+}
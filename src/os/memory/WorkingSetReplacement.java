@@ -0,0 +1,45 @@
+
+package os.memory;
+
+/**
+ * Keeps each process to its working set: pages not referenced within the
+ * window are freed as the window slides, and when a frame is still needed
+ * the least recently referenced page goes.
+ *
+ * @author mnprtpsingh
+ */
+public class WorkingSetReplacement extends ReplacementPolicy {
+    private final int window;
+
+    public WorkingSetReplacement(int window) {
+        if (window <= 1) throw new IllegalArgumentException("Working set window must be larger than 1: " + window);
+        this.window = window;
+    }
+
+    @Override
+    public String getName() {
+        return "working-set:" + this.window;
+    }
+
+    @Override
+    public int getInterval() {
+        return this.window / 2;
+    }
+
+    @Override
+    public void tick(FrameTable frames, int clock) {
+        for (int frame = 0; frame < frames.size; frame++) {
+            if (frames.isEvictable(frame) && clock - frames.lastUse[frame] > this.window) frames.evict(frame);
+        }
+    }
+
+    @Override
+    public int select(FrameTable frames, int clock) {
+        int victim = -1;
+        for (int frame = 0; frame < frames.size; frame++) {
+            if (!frames.isEvictable(frame)) continue;
+            if (victim < 0 || frames.lastUse[frame] < frames.lastUse[victim]) victim = frame;
+        }
+        return victim;
+    }
+}
@@ -0,0 +1,95 @@
+
+package os.metrics;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ * Fixed-bucket histogram of non-negative ints. Values below 32 get their
+ * own bucket and larger values fall into 16 buckets per power of two, so
+ * every reported percentile is within about 6% of the recorded value.
+ * Recording never allocates.
+ *
+ * @author mnprtpsingh
+ */
+public class Histogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (31 - SUB_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final String name;
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private int max;
+
+    public Histogram(String name) {
+        this.name = name;
+        this.counts = new long[BUCKETS];
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    private static int indexOf(int value) {
+        if (value < 2 * SUB_BUCKETS) return value;
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return shift * SUB_BUCKETS + (value >>> shift);
+    }
+
+    private static int highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - shift * SUB_BUCKETS;
+        return (int) Math.min(((mantissa + 1) << shift) - 1, Integer.MAX_VALUE);
+    }
+
+    public void record(int value) {
+        if (value < 0) value = 0;
+        this.counts[indexOf(value)]++;
+        this.count++;
+        this.sum += value;
+        if (value > this.max) this.max = value;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    public int getMax() {
+        return this.max;
+    }
+
+    public int getPercentile(double percentile) {
+        if (this.count == 0) return 0;
+        long rank = Math.max((long) Math.ceil(percentile * this.count), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) return Math.min(highestValueOf(i), this.max);
+        }
+        return this.max;
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putLongs(this.counts, BUCKETS);
+        out.putLong(this.count);
+        out.putLong(this.sum);
+        out.putInt(this.max);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        long[] counts = in.getLongs();
+        System.arraycopy(counts, 0, this.counts, 0, BUCKETS);
+        this.count = in.getLong();
+        this.sum = in.getLong();
+        this.max = in.getInt();
+    }
+}
@@ -0,0 +1,150 @@
+
+package os.metrics;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.process.ProcessState;
+import os.process.ProcessTable;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Instrumentation for a simulation run: gauges sampled every interval
+ * ticks into bounded time series, and latency histograms fed as processes
+ * finish. All storage is allocated up front.
+ *
+ * @author mnprtpsingh
+ */
+public class Metrics {
+    public static final int READY = 0;
+    public static final int IO_WAIT = 1;
+    public static final int MEMORY_WAIT = 2;
+    public static final int MEMORY_USED = 3;
+    public static final int BUSY_CORES = 4;
+    public static final int IO_BUSY = 5;
+    private static final String[] GAUGES = {
+        "ready", "io_wait", "memory_wait", "memory_used", "busy_cores", "io_busy"
+    };
+    private static final int CAPACITY = 4096;
+
+    private final int interval;
+    private final TimeSeries[] series;
+    private final int[] gauges;
+    private final Histogram waiting;
+    private final Histogram response;
+    private final Histogram turnaround;
+    private int nextSample;
+
+    public Metrics(int interval) {
+        if (interval <= 0) throw new IllegalArgumentException("Sample interval must be positive: " + interval);
+        this.interval = interval;
+        this.series = new TimeSeries[GAUGES.length];
+        for (int i = 0; i < GAUGES.length; i++) {
+            this.series[i] = new TimeSeries(GAUGES[i], CAPACITY);
+        }
+        this.gauges = new int[GAUGES.length];
+        this.waiting = new Histogram("Waiting Time");
+        this.response = new Histogram("Response Time");
+        this.turnaround = new Histogram("Turnaround Time");
+        this.nextSample = 0;
+    }
+
+    public int getInterval() {
+        return this.interval;
+    }
+
+    /**
+     * Samples the series would drop are passed over here, so the gauges
+     * are only read for samples that are kept.
+     *
+     * @return whether a sample falls in [clock, clock + time), in which
+     * case the gauges must be set before calling sample
+     */
+    public boolean isSampleDue(int clock, int time) {
+        while (this.nextSample >= clock && this.nextSample < clock + time && this.series[0].isDropping()) {
+            for (int i = 0; i < this.series.length; i++) {
+                this.series[i].skip();
+            }
+            this.nextSample += this.interval;
+        }
+        return this.nextSample < clock + time;
+    }
+
+    public void setGauge(int gauge, int value) {
+        this.gauges[gauge] = value;
+    }
+
+    public void sample(int clock, int time) {
+        if (this.nextSample < clock) {
+            this.nextSample += (clock - this.nextSample + this.interval - 1) / this.interval * this.interval;
+        }
+        while (this.nextSample < clock + time) {
+            for (int i = 0; i < this.series.length; i++) {
+                this.series[i].record(this.nextSample, this.gauges[i]);
+            }
+            this.nextSample += this.interval;
+        }
+    }
+
+    public void complete(ProcessTable table, int slot) {
+        this.response.record(table.get(ProcessTable.RESPONSE_TIME, slot));
+        if (table.getState(slot) != ProcessState.TERMINATED) return;
+        int time = table.get(ProcessTable.COMPLETION_TIME, slot) - table.get(ProcessTable.ARRIVAL_TIME, slot);
+        this.turnaround.record(time);
+        this.waiting.record(time - table.get(ProcessTable.TIME_SPENT_IN_CPU, slot)
+                - table.get(ProcessTable.TIME_SPENT_IN_IO, slot));
+    }
+
+    public TimeSeries getSeries(int gauge) {
+        return this.series[gauge];
+    }
+
+    public Histogram[] getHistograms() {
+        return new Histogram[] { this.waiting, this.response, this.turnaround };
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        for (TimeSeries s : this.series) {
+            s.save(out);
+        }
+        out.putInts(this.gauges, this.gauges.length);
+        for (Histogram histogram : this.getHistograms()) {
+            histogram.save(out);
+        }
+        out.putInt(this.nextSample);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        for (TimeSeries s : this.series) {
+            s.restore(in);
+        }
+        int[] gauges = in.getInts();
+        System.arraycopy(gauges, 0, this.gauges, 0, gauges.length);
+        for (Histogram histogram : this.getHistograms()) {
+            histogram.restore(in);
+        }
+        this.nextSample = in.getInt();
+    }
+
+    public void writeSeries(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("time");
+            for (TimeSeries s : this.series) {
+                writer.write(',');
+                writer.write(s.getName());
+            }
+            writer.newLine();
+            for (int i = 0; i < this.series[0].size(); i++) {
+                writer.write(Integer.toString(this.series[0].getTime(i)));
+                for (TimeSeries s : this.series) {
+                    writer.write(',');
+                    writer.write(Integer.toString(s.getValue(i)));
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+
+package os.metrics;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.io.IOException;
+
+/**
+ * Bounded series of values sampled at a fixed interval. When the buffer
+ * fills up every other sample is dropped and the interval doubles, so a
+ * run of any length fits in the same preallocated arrays.
+ *
+ * @author mnprtpsingh
+ */
+public class TimeSeries {
+    private final String name;
+    private final int[] times;
+    private final int[] values;
+    private int size;
+    private int stride;
+    private int skipped;
+
+    public TimeSeries(String name, int capacity) {
+        this.name = name;
+        this.times = new int[capacity & ~1];
+        this.values = new int[capacity & ~1];
+        this.size = 0;
+        this.stride = 1;
+        this.skipped = 0;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getTime(int i) {
+        return this.times[i];
+    }
+
+    public int getValue(int i) {
+        return this.values[i];
+    }
+
+    /**
+     * @return whether the next value recorded will be dropped
+     */
+    public boolean isDropping() {
+        return this.skipped + 1 < this.stride;
+    }
+
+    /**
+     * Counts a sample that would be dropped, without its value.
+     */
+    public void skip() {
+        this.skipped++;
+    }
+
+    public void record(int time, int value) {
+        if (++this.skipped < this.stride) return;
+        this.skipped = 0;
+        if (this.size == this.times.length) {
+            for (int i = 0; i < this.size / 2; i++) {
+                this.times[i] = this.times[2 * i];
+                this.values[i] = this.values[2 * i];
+            }
+            this.size /= 2;
+            this.stride *= 2;
+        }
+        this.times[this.size] = time;
+        this.values[this.size] = value;
+        this.size++;
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInts(this.times, this.size);
+        out.putInts(this.values, this.size);
+        out.putInt(this.stride);
+        out.putInt(this.skipped);
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+        int[] times = in.getInts();
+        int[] values = in.getInts();
+        System.arraycopy(times, 0, this.times, 0, times.length);
+        System.arraycopy(values, 0, this.values, 0, values.length);
+        this.size = times.length;
+        this.stride = in.getInt();
+        this.skipped = in.getInt();
+    }
+}
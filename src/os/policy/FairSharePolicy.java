@@ -0,0 +1,148 @@
+
+package os.policy;
+
+import os.ProcessHeap;
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.process.Process;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Completely-fair-style scheduling: each process accumulates virtual
+ * runtime while it runs, the queue is a binary heap keyed by virtual
+ * runtime, and the running process is preempted once it has run for the
+ * minimum granularity and is ahead of the first waiting process. A
+ * process entering a queue starts no lower than the queue's minimum
+ * virtual runtime, so newcomers and sleepers cannot monopolize a device.
+ *
+ * @author mnprtpsingh
+ */
+public class FairSharePolicy extends SchedulingPolicy {
+    private final int granularity;
+    private long[] vruntimes;
+
+    public FairSharePolicy(int granularity) {
+        if (granularity <= 0) throw new IllegalArgumentException("Granularity must be positive: " + granularity);
+        this.granularity = granularity;
+        this.vruntimes = new long[1024];
+    }
+
+    long getVirtualRuntime(Process proc) {
+        int slot = proc.getSlot();
+        return slot < this.vruntimes.length ? this.vruntimes[slot] : 0;
+    }
+
+    void setVirtualRuntime(Process proc, long vruntime) {
+        int slot = proc.getSlot();
+        if (slot >= this.vruntimes.length) {
+            this.vruntimes = Arrays.copyOf(this.vruntimes, Math.max(slot + 1, this.vruntimes.length * 2));
+        }
+        this.vruntimes[slot] = vruntime;
+    }
+
+    @Override
+    public String getName() {
+        return "cfs";
+    }
+
+    @Override
+    public int getQuantum() {
+        return this.granularity;
+    }
+
+    @Override
+    public ProcessQueue createQueue() {
+        return new VirtualRuntimeQueue(this);
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, int used, Process candidate) {
+        return used >= this.granularity && this.getVirtualRuntime(running) > this.getVirtualRuntime(candidate);
+    }
+
+    @Override
+    public int getTimeToPreempt(Process running, int used, Process candidate) {
+        long lead = this.getVirtualRuntime(candidate) - this.getVirtualRuntime(running) + 1;
+        long time = Math.max(this.granularity - used, lead);
+        return (int) Math.min(Math.max(time, 1), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void run(Process proc, int time) {
+        this.setVirtualRuntime(proc, this.getVirtualRuntime(proc) + time);
+    }
+
+    @Override
+    public void save(CheckpointWriter out) throws IOException {
+        out.putLongs(this.vruntimes, this.vruntimes.length);
+    }
+
+    @Override
+    public void restore(CheckpointReader in) throws IOException {
+        this.vruntimes = in.getLongs();
+    }
+
+    static class VirtualRuntimeQueue implements ProcessQueue {
+        private final FairSharePolicy policy;
+        private final ProcessHeap heap;
+        private long minVruntime;
+
+        VirtualRuntimeQueue(FairSharePolicy policy) {
+            this.policy = policy;
+            this.heap = new ProcessHeap((p1, p2) -> {
+                long v1 = policy.getVirtualRuntime(p1);
+                long v2 = policy.getVirtualRuntime(p2);
+                if (v1 != v2) return v1 < v2 ? -1 : 1;
+                return Integer.compare(p1.pid, p2.pid);
+            });
+            this.minVruntime = 0;
+        }
+
+        @Override
+        public boolean add(Process proc) {
+            if (this.policy.getVirtualRuntime(proc) < this.minVruntime) {
+                this.policy.setVirtualRuntime(proc, this.minVruntime);
+            }
+            return this.heap.add(proc);
+        }
+
+        @Override
+        public Process peek() {
+            return this.heap.peek();
+        }
+
+        @Override
+        public Process remove() {
+            Process proc = this.heap.remove();
+            this.minVruntime = Math.max(this.minVruntime, this.policy.getVirtualRuntime(proc));
+            return proc;
+        }
+
+        @Override
+        public int size() {
+            return this.heap.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.heap.isEmpty();
+        }
+
+        @Override
+        public Iterator<Process> iterator() {
+            return this.heap.iterator();
+        }
+
+        @Override
+        public void save(CheckpointWriter out) throws IOException {
+            out.putLong(this.minVruntime);
+        }
+
+        @Override
+        public void restore(CheckpointReader in) throws IOException {
+            this.minVruntime = in.getLong();
+        }
+    }
+}
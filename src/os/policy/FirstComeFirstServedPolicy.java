@@ -0,0 +1,27 @@
+
+package os.policy;
+
+import os.process.Process;
+
+/**
+ * Non-preemptive first-come, first-served.
+ *
+ * @author mnprtpsingh
+ */
+public class FirstComeFirstServedPolicy extends SchedulingPolicy {
+
+    @Override
+    public String getName() {
+        return "fcfs";
+    }
+
+    @Override
+    public ProcessQueue createQueue() {
+        return new ProcessFifo();
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, int used, Process candidate) {
+        return false;
+    }
+}
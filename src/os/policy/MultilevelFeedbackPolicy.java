@@ -0,0 +1,184 @@
+
+package os.policy;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.process.Process;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Multi-level feedback queue with round-robin levels whose quantum doubles
+ * at each level. A process that is preempted after using its whole
+ * quantum drops one level, a waiting process on a higher level preempts
+ * one running on a lower level, and every process returns to the top
+ * level at each boost.
+ *
+ * @author mnprtpsingh
+ */
+public class MultilevelFeedbackPolicy extends SchedulingPolicy {
+    public static final int LEVELS = 3;
+    public static final int BOOST_INTERVAL = 1000;
+
+    private final int quantum;
+    private final ArrayList<LevelQueue> queues;
+    private byte[] levels;
+
+    public MultilevelFeedbackPolicy(int quantum) {
+        if (quantum <= 0) throw new IllegalArgumentException("Quantum must be positive: " + quantum);
+        this.quantum = quantum;
+        this.queues = new ArrayList<>();
+        this.levels = new byte[1024];
+    }
+
+    int getLevel(Process proc) {
+        int slot = proc.getSlot();
+        return slot < this.levels.length ? this.levels[slot] : 0;
+    }
+
+    private void setLevel(Process proc, int level) {
+        int slot = proc.getSlot();
+        if (slot >= this.levels.length) {
+            this.levels = Arrays.copyOf(this.levels, Math.max(slot + 1, this.levels.length * 2));
+        }
+        this.levels[slot] = (byte) level;
+    }
+
+    @Override
+    public int getQuantum() {
+        return this.quantum;
+    }
+
+    public int getQuantum(int level) {
+        return this.quantum << level;
+    }
+
+    @Override
+    public String getName() {
+        return "mlfq";
+    }
+
+    @Override
+    public ProcessQueue createQueue() {
+        LevelQueue queue = new LevelQueue(this);
+        this.queues.add(queue);
+        return queue;
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, int used, Process candidate) {
+        int level = this.getLevel(running);
+        return this.getLevel(candidate) < level || used >= this.getQuantum(level);
+    }
+
+    @Override
+    public int getTimeToPreempt(Process running, int used, Process candidate) {
+        return Math.max(this.getQuantum(this.getLevel(running)) - used, 1);
+    }
+
+    @Override
+    public void preempted(Process proc, int used) {
+        int level = this.getLevel(proc);
+        if (used >= this.getQuantum(level) && level < LEVELS - 1) this.setLevel(proc, level + 1);
+    }
+
+    @Override
+    public void tick(int clock) {
+        if (clock % BOOST_INTERVAL != 0) return;
+        Arrays.fill(this.levels, (byte) 0);
+        for (int i = 0; i < this.queues.size(); i++) {
+            this.queues.get(i).boost();
+        }
+    }
+
+    @Override
+    public int getTimeToTick(int clock) {
+        return BOOST_INTERVAL - clock % BOOST_INTERVAL;
+    }
+
+    @Override
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.levels.length);
+        out.putBytes(this.levels, this.levels.length);
+    }
+
+    @Override
+    public void restore(CheckpointReader in) throws IOException {
+        this.levels = new byte[in.getInt()];
+        in.getBytes(this.levels, this.levels.length);
+    }
+
+    static class LevelQueue implements ProcessQueue {
+        private final MultilevelFeedbackPolicy policy;
+        private final ArrayDeque<Process>[] levels;
+        private int size;
+
+        LevelQueue(MultilevelFeedbackPolicy policy) {
+            this.policy = policy;
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ArrayDeque<Process>[] levels = new ArrayDeque[LEVELS];
+            this.levels = levels;
+            for (int i = 0; i < LEVELS; i++) {
+                this.levels[i] = new ArrayDeque<>();
+            }
+            this.size = 0;
+        }
+
+        @Override
+        public boolean add(Process proc) {
+            this.levels[this.policy.getLevel(proc)].add(proc);
+            this.size++;
+            return true;
+        }
+
+        @Override
+        public Process peek() {
+            for (int i = 0; i < LEVELS; i++) {
+                if (!this.levels[i].isEmpty()) return this.levels[i].peekFirst();
+            }
+            return null;
+        }
+
+        @Override
+        public Process remove() {
+            for (int i = 0; i < LEVELS; i++) {
+                if (!this.levels[i].isEmpty()) {
+                    this.size--;
+                    return this.levels[i].removeFirst();
+                }
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        @Override
+        public Iterator<Process> iterator() {
+            ArrayList<Process> procs = new ArrayList<>(this.size);
+            for (ArrayDeque<Process> level : this.levels) {
+                procs.addAll(level);
+            }
+            return procs.iterator();
+        }
+
+        void boost() {
+            for (int i = 1; i < LEVELS; i++) {
+                while (!this.levels[i].isEmpty()) {
+                    this.levels[0].addLast(this.levels[i].removeFirst());
+                }
+            }
+        }
+    }
+}
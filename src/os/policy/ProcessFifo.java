@@ -0,0 +1,49 @@
+
+package os.policy;
+
+import os.process.Process;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * First-in, first-out process queue.
+ *
+ * @author mnprtpsingh
+ */
+public class ProcessFifo implements ProcessQueue {
+    private final ArrayDeque<Process> queue;
+
+    public ProcessFifo() {
+        this.queue = new ArrayDeque<>();
+    }
+
+    @Override
+    public boolean add(Process proc) {
+        return this.queue.add(proc);
+    }
+
+    @Override
+    public Process peek() {
+        return this.queue.peekFirst();
+    }
+
+    @Override
+    public Process remove() {
+        return this.queue.removeFirst();
+    }
+
+    @Override
+    public int size() {
+        return this.queue.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.queue.isEmpty();
+    }
+
+    @Override
+    public Iterator<Process> iterator() {
+        return this.queue.iterator();
+    }
+}
@@ -0,0 +1,37 @@
+
+package os.policy;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.process.Process;
+import java.io.IOException;
+
+/**
+ * Queue of processes waiting for a device, ordered by a scheduling policy.
+ * Iteration visits the processes in an order that rebuilds the same queue
+ * when they are added back to an empty one.
+ *
+ * @author mnprtpsingh
+ */
+public interface ProcessQueue extends Iterable<Process> {
+
+    boolean add(Process proc);
+
+    Process peek();
+
+    Process remove();
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Saves the queue's own bookkeeping; the processes are saved by the
+     * caller.
+     */
+    default void save(CheckpointWriter out) throws IOException {
+    }
+
+    default void restore(CheckpointReader in) throws IOException {
+    }
+}
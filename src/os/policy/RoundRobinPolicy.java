@@ -0,0 +1,44 @@
+
+package os.policy;
+
+import os.process.Process;
+
+/**
+ * Round-robin: the running process goes to the back of the queue once it
+ * has used its quantum and another process is waiting.
+ *
+ * @author mnprtpsingh
+ */
+public class RoundRobinPolicy extends SchedulingPolicy {
+    private final int quantum;
+
+    public RoundRobinPolicy(int quantum) {
+        if (quantum <= 0) throw new IllegalArgumentException("Quantum must be positive: " + quantum);
+        this.quantum = quantum;
+    }
+
+    @Override
+    public String getName() {
+        return "rr";
+    }
+
+    @Override
+    public int getQuantum() {
+        return this.quantum;
+    }
+
+    @Override
+    public ProcessQueue createQueue() {
+        return new ProcessFifo();
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, int used, Process candidate) {
+        return used >= this.quantum;
+    }
+
+    @Override
+    public int getTimeToPreempt(Process running, int used, Process candidate) {
+        return Math.max(this.quantum - used, 1);
+    }
+}
@@ -0,0 +1,84 @@
+
+package os.policy;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.process.Process;
+import java.io.IOException;
+
+/**
+ * Decides the order in which waiting processes get a device and when the
+ * running process is preempted. A policy is consulted only when the
+ * system settles after an event, so every time-based decision must be
+ * announced in advance through getTimeToPreempt and getTimeToTick for the
+ * event-driven loop to stop at the right tick.
+ *
+ * @author mnprtpsingh
+ */
+public abstract class SchedulingPolicy {
+    public static final int DEFAULT_QUANTUM = 20;
+
+    public static SchedulingPolicy create(String name, int quantum) {
+        switch (name) {
+            case "srtf":
+                return new ShortestRemainingTimePolicy();
+            case "fcfs":
+                return new FirstComeFirstServedPolicy();
+            case "rr":
+                return new RoundRobinPolicy(quantum);
+            case "mlfq":
+                return new MultilevelFeedbackPolicy(quantum);
+            case "cfs":
+                return new FairSharePolicy(quantum);
+            default:
+                throw new IllegalArgumentException("Unknown scheduling policy: " + name);
+        }
+    }
+
+    public abstract String getName();
+
+    /**
+     * @return the quantum this policy was created with
+     */
+    public int getQuantum() {
+        return DEFAULT_QUANTUM;
+    }
+
+    public abstract ProcessQueue createQueue();
+
+    /**
+     * @param used time the running process has run since it was dispatched
+     */
+    public abstract boolean shouldPreempt(Process running, int used, Process candidate);
+
+    /**
+     * @return the run time after which shouldPreempt may first hold if the
+     * queue does not change, or Integer.MAX_VALUE if it never will
+     */
+    public int getTimeToPreempt(Process running, int used, Process candidate) {
+        return Integer.MAX_VALUE;
+    }
+
+    public void run(Process proc, int time) {
+    }
+
+    public void preempted(Process proc, int used) {
+    }
+
+    public void tick(int clock) {
+    }
+
+    public int getTimeToTick(int clock) {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Saves per-process state, which must be restored before any process
+     * is added back to the policy's queues.
+     */
+    public void save(CheckpointWriter out) throws IOException {
+    }
+
+    public void restore(CheckpointReader in) throws IOException {
+    }
+}
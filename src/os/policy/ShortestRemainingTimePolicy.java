@@ -0,0 +1,44 @@
+
+package os.policy;
+
+import os.ProcessHeap;
+import os.process.Process;
+import java.util.Comparator;
+
+/**
+ * Preemptive shortest-remaining-time-first, the simulator's original
+ * policy.
+ *
+ * @author mnprtpsingh
+ */
+public class ShortestRemainingTimePolicy extends SchedulingPolicy {
+
+    @Override
+    public String getName() {
+        return "srtf";
+    }
+
+    @Override
+    public ProcessQueue createQueue() {
+        return new ProcessHeap(new ProcessRemainingTimeComparator());
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, int used, Process candidate) {
+        return running.getRemainingTime() > candidate.getRemainingTime();
+    }
+}
+
+class ProcessRemainingTimeComparator implements Comparator<Process> {
+
+    @Override
+    public int compare(Process p1, Process p2) {
+        int t1 = p1.getRemainingTime();
+        int t2 = p2.getRemainingTime();
+        if (t1 < t2) return -1;
+        else if (t1 > t2) return 1;
+        else if (p1.pid < p2.pid) return -1;
+        else if (p1.pid > p2.pid) return 1;
+        return 0;
+    }
+}
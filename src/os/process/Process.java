@@ -3,6 +3,11 @@ package os.process;
 
 import os.job.*;
 import os.ComputerSystem;
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import os.journal.EventJournal;
+import os.timeline.TimelineWriter;
+import java.util.Arrays;
 import java.io.FileWriter;
 import java.io.IOException;
 
@@ -14,91 +19,228 @@ public class Process {
     public final int pid;
     public final Job job;
     public final int arrivalTime;
-    public ProcessState processState;
 
     private final ComputerSystem system;
-    private int completionTime;
-    private int timesInCPU;
-    private int timeSpentInCPU;
-    private int timesInIO;
-    private int timeSpentInIO;
-    private int timesPrempted;
-    private int timesWaited;
-    private int memoryAllocated;
+    private final ProcessTable table;
+    private final int slot;
+    private int[] regionAddresses;
+    private int[] regionSizes;
+    private int regions;
+    private final EventJournal journal;
+    private final TimelineWriter timeline;
+    private int cpuTime;
+    private int ioTime;
+    private int core;
+    private int queueIndex;
+    private int memoryIndex;
 
     public Process(Job job, ComputerSystem system, int pid, int time) {
+        this(job, system, pid, time, system.getProcessTable().add(pid, time, job.memoryRequired, job.getName(), job.numberOfBurst));
+        this.log(EventJournal.ADMIT, job.numberOfBurst);
+        this.log(EventJournal.ALLOCATE, job.memoryRequired);
+    }
+
+    private Process(Job job, ComputerSystem system, int pid, int time, int slot) {
         this.pid = pid;
         this.job = job;
         this.arrivalTime = time;
-        this.processState = ProcessState.READY;
         this.system = system;
-        this.memoryAllocated = job.memoryRequired;
-        this.timesInCPU = 0;
-        this.timeSpentInCPU = 0;
-        this.timesInIO = 0;
-        this.timeSpentInIO = 0;
-        this.timesPrempted = 0;
-        this.timesWaited = 0;
+        this.table = system.getProcessTable();
+        this.slot = slot;
+        this.regionAddresses = new int[2];
+        this.regionSizes = new int[2];
+        this.regions = 0;
+        this.journal = system.getJournal();
+        this.timeline = system.getTimeline();
+        this.cpuTime = 0;
+        this.ioTime = 0;
+        this.core = -1;
+        this.queueIndex = -1;
+        this.memoryIndex = -1;
+    }
+
+    /**
+     * Journals a transition, preceded by the run time accumulated since the
+     * previous one, and adds it to the timeline.
+     */
+    private void log(int event, int argument) {
+        if (this.timeline != null) this.timeline.record(this.system.getClock(), this.slot, this.pid, event, argument);
+        if (this.journal == null) return;
+        int clock = this.system.getClock();
+        if (this.cpuTime > 0) {
+            this.journal.record(clock, this.pid, EventJournal.CPU_TIME, this.cpuTime);
+            this.cpuTime = 0;
+        }
+        if (this.ioTime > 0) {
+            this.journal.record(clock, this.pid, EventJournal.IO_TIME, this.ioTime);
+            this.ioTime = 0;
+        }
+        this.journal.record(clock, this.pid, event, argument);
+    }
+
+    public int getSlot() {
+        return this.slot;
+    }
+
+    public ProcessState getProcessState() {
+        return this.table.getState(this.slot);
     }
 
     public int getRemainingTime() {
-        return this.job.getBurst().getRemainingTime();
+        return this.job.getRemainingTime();
     }
 
     public int getMemoryAllocated() {
-        return this.memoryAllocated;
+        return this.table.get(ProcessTable.MEMORY_ALLOCATED, this.slot);
+    }
+
+    /**
+     * @return the number of memory blocks the process holds, in the order
+     * they were allocated
+     */
+    public int getNumberOfRegions() {
+        return this.regions;
+    }
+
+    public int getRegionAddress(int region) {
+        return this.regionAddresses[region];
+    }
+
+    public int getRegionSize(int region) {
+        return this.regionSizes[region];
+    }
+
+    public void addRegion(int address, int size) {
+        if (this.regions == this.regionAddresses.length) {
+            this.regionAddresses = Arrays.copyOf(this.regionAddresses, 2 * this.regions);
+            this.regionSizes = Arrays.copyOf(this.regionSizes, 2 * this.regions);
+        }
+        this.regionAddresses[this.regions] = address;
+        this.regionSizes[this.regions] = size;
+        this.regions++;
+    }
+
+    /**
+     * Forgets the most recently allocated block; the caller frees it.
+     */
+    public void removeRegion() {
+        this.regions--;
+    }
+
+    public void clearRegions() {
+        this.regions = 0;
     }
 
     public void allocateMemory(int size) {
-        this.memoryAllocated += size;
+        this.table.add(ProcessTable.MEMORY_ALLOCATED, this.slot, size);
+        this.log(EventJournal.ALLOCATE, size);
+    }
+
+    public int getCompletionTime() {
+        return this.table.get(ProcessTable.COMPLETION_TIME, this.slot);
+    }
+
+    public int getHeapIndex(int slot) {
+        return slot == 0 ? this.queueIndex : this.memoryIndex;
     }
 
-    public void dispatch() {
-        this.processState = ProcessState.RUNNING;
-        this.timesInCPU++;
+    public void setHeapIndex(int slot, int index) {
+        if (slot == 0) this.queueIndex = index;
+        else this.memoryIndex = index;
+    }
+
+    public int getCore() {
+        return this.core;
+    }
+
+    public void dispatch(int core) {
+        this.table.setState(this.slot, ProcessState.RUNNING);
+        if (this.table.get(ProcessTable.TIMES_IN_CPU, this.slot) == 0) {
+            this.table.set(ProcessTable.RESPONSE_TIME, this.slot, this.system.getClock() - this.arrivalTime);
+        }
+        this.table.add(ProcessTable.TIMES_IN_CPU, this.slot, 1);
+        this.core = core;
+        this.log(EventJournal.DISPATCH, core);
     }
 
     public void run() {
-        Burst bst = this.job.getBurst();
-        if (bst.getRemainingTime() > 0) bst.run();
-        if (bst.getBurstType() == BurstType.CPU_BURST) this.timeSpentInCPU++;
-        else this.timeSpentInIO++;
+        this.run(1);
+    }
+
+    public void run(int time) {
+        this.job.runBurst(Math.min(time, this.job.getRemainingTime()));
+        if (this.job.getBurstType() == BurstType.CPU_BURST) {
+            this.table.add(ProcessTable.TIME_SPENT_IN_CPU, this.slot, time);
+            if (this.journal != null) this.cpuTime += time;
+        } else {
+            this.table.add(ProcessTable.TIME_SPENT_IN_IO, this.slot, time);
+            if (this.journal != null) this.ioTime += time;
+        }
     }
 
     public void ready() {
-        this.processState = ProcessState.READY;
-        CPU_Burst bst = (CPU_Burst) this.job.getBurst();
-        this.memoryAllocated += bst.getMemoryRequired();
+        int size = this.job.getBurstMemoryRequired();
+        this.table.setState(this.slot, ProcessState.READY);
+        this.table.add(ProcessTable.MEMORY_ALLOCATED, this.slot, size);
+        this.log(EventJournal.READY, size);
     }
 
     public void preempt() {
-        BurstType type = this.job.getBurst().getBurstType();
+        BurstType type = this.job.getBurstType();
         if (type == BurstType.CPU_BURST) {
-            this.processState = ProcessState.READY;
-            this.timesPrempted++;
-        } else this.processState = ProcessState.WAITING;
+            this.table.setState(this.slot, ProcessState.READY);
+            this.table.add(ProcessTable.TIMES_PREEMPTED, this.slot, 1);
+        } else this.table.setState(this.slot, ProcessState.WAITING);
+        this.log(EventJournal.PREEMPT, type.ordinal());
     }
 
     public void memoryWait() {
-        this.processState = ProcessState.WAITING;
-        this.timesWaited++;
+        this.table.setState(this.slot, ProcessState.WAITING);
+        this.table.add(ProcessTable.TIMES_WAITED, this.slot, 1);
+        this.log(EventJournal.MEMORY_WAIT, this.job.getBurstMemoryRequired());
     }
 
     public void ioWait() {
-        this.processState = ProcessState.WAITING;
-        this.timesInIO++;
+        this.table.setState(this.slot, ProcessState.WAITING);
+        this.table.add(ProcessTable.TIMES_IN_IO, this.slot, 1);
+        this.log(EventJournal.IO_WAIT, this.job.getBurstDevice());
+    }
+
+    /**
+     * @param pages the number of pages the process waits for
+     */
+    public void pageFault(int pages) {
+        this.table.setState(this.slot, ProcessState.WAITING);
+        this.log(EventJournal.PAGE_FAULT, pages);
+    }
+
+    public void pagedIn() {
+        this.table.setState(this.slot, ProcessState.READY);
+        this.log(EventJournal.READY, 0);
+    }
+
+    public void swapOut() {
+        this.table.setState(this.slot, ProcessState.SUSPENDED);
+        this.log(EventJournal.SWAP_OUT, this.getMemoryAllocated());
+    }
+
+    public void swapIn() {
+        this.table.setState(this.slot, ProcessState.WAITING);
+        this.log(EventJournal.SWAP_IN, this.getMemoryAllocated());
     }
 
     public void kill() {
-        this.processState = ProcessState.KILLED;
-        this.completionTime = this.system.getClock();
-        this.system.freeMemory(this.memoryAllocated);
+        this.table.setState(this.slot, ProcessState.KILLED);
+        this.table.set(ProcessTable.COMPLETION_TIME, this.slot, this.system.getClock());
+        this.log(EventJournal.KILL, 0);
+        this.system.freeMemory(this);
     }
 
     public void terminate() {
-        this.processState = ProcessState.TERMINATED;
-        this.completionTime = this.system.getClock();
-        this.system.freeMemory(this.memoryAllocated);
+        this.table.setState(this.slot, ProcessState.TERMINATED);
+        this.table.set(ProcessTable.COMPLETION_TIME, this.slot, this.system.getClock());
+        this.log(EventJournal.TERMINATE, 0);
+        this.system.freeMemory(this);
     }
 
     public void displayStatistics() {
@@ -107,36 +249,57 @@ public class Process {
         System.out.printf("Arrival Time: %d\n", this.arrivalTime);
         System.out.printf("Number of Bursts: %d\n", this.job.numberOfBurst);
 
-        System.out.printf("Number of times in CPU: %d\n", this.timesInCPU);
-        System.out.printf("Time spent in CPU: %d\n", this.timeSpentInCPU);
+        System.out.printf("Number of times in CPU: %d\n", this.table.get(ProcessTable.TIMES_IN_CPU, this.slot));
+        System.out.printf("Time spent in CPU: %d\n", this.table.get(ProcessTable.TIME_SPENT_IN_CPU, this.slot));
 
-        System.out.printf("Number of times performed IO: %d\n", this.timesInIO);
-        System.out.printf("Time spent performing IO: %d\n", this.timeSpentInIO);
+        System.out.printf("Number of times performed IO: %d\n", this.table.get(ProcessTable.TIMES_IN_IO, this.slot));
+        System.out.printf("Time spent performing IO: %d\n", this.table.get(ProcessTable.TIME_SPENT_IN_IO, this.slot));
 
-        System.out.printf("Number of times waiting for memory: %d\n", this.timesWaited);
-        System.out.printf("Number of times preempted: %d\n", this.timesPrempted);
+        System.out.printf("Number of times waiting for memory: %d\n", this.table.get(ProcessTable.TIMES_WAITED, this.slot));
+        System.out.printf("Number of times preempted: %d\n", this.table.get(ProcessTable.TIMES_PREEMPTED, this.slot));
 
-        System.out.printf("Completion Time: %d\n", this.completionTime);
-        System.out.printf("Final State: %s\n", this.processState.toString());
+        System.out.printf("Completion Time: %d\n", this.table.get(ProcessTable.COMPLETION_TIME, this.slot));
+        System.out.printf("Final State: %s\n", this.getProcessState().toString());
     }
 
     public void displayStatistics(FileWriter writer) throws IOException {
-        String s = System.lineSeparator();
-        writer.write(s + s + "Process ID: " + Integer.toString(this.pid));
-        writer.write(s + "Name: " + this.job.getName());
-        writer.write(s + "Arrival Time: " + Integer.toString(this.arrivalTime));
-        writer.write(s + "Number of Bursts: " + Integer.toString(this.job.numberOfBurst));
-
-        writer.write(s + "Number of times in CPU: " + Integer.toString(this.timesInCPU));
-        writer.write(s + "Time spent in CPU: " + Integer.toString(this.timeSpentInCPU));
-
-        writer.write(s + "Number of times performed IO: " + Integer.toString(this.timesInIO));
-        writer.write(s + "Time spent performing IO: " + Integer.toString(this.timeSpentInIO));
+        this.table.displayStatistics(writer, this.slot);
+    }
 
-        writer.write(s + "Number of times waiting for memory: " + Integer.toString(this.timesWaited));
-        writer.write(s + "Number of times preempted: " + Integer.toString(this.timesPrempted));
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.pid);
+        out.putInt(this.arrivalTime);
+        out.putInt(this.slot);
+        out.putInt(this.core);
+        out.putInt(this.regions);
+        for (int i = 0; i < this.regions; i++) {
+            out.putInt(this.regionAddresses[i]);
+            out.putInt(this.regionSizes[i]);
+        }
+        this.job.save(out);
+    }
 
-        writer.write(s + "Completion Time: " + Integer.toString(this.completionTime));
-        writer.write(s + "Final State: " + this.processState.toString());
+    /**
+     * Recreates a saved process around its existing row in the system's
+     * process table.
+     */
+    public static Process restore(CheckpointReader in, ComputerSystem system) throws IOException {
+        int pid = in.getInt();
+        int time = in.getInt();
+        int slot = in.getInt();
+        int core = in.getInt();
+        int n = in.getInt();
+        int[] addresses = new int[n];
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            addresses[i] = in.getInt();
+            sizes[i] = in.getInt();
+        }
+        Process proc = new Process(Job.restore(in), system, pid, time, slot);
+        for (int i = 0; i < n; i++) {
+            proc.addRegion(addresses[i], sizes[i]);
+        }
+        proc.core = core;
+        return proc;
     }
 }
@@ -6,5 +6,5 @@ package os.process;
  * @author mnprtpsingh
  */
 public enum ProcessState {
-    READY, WAITING, RUNNING, TERMINATED, KILLED
+    READY, WAITING, RUNNING, TERMINATED, KILLED, SUSPENDED
 }
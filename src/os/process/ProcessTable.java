@@ -0,0 +1,202 @@
+
+package os.process;
+
+import os.checkpoint.CheckpointReader;
+import os.checkpoint.CheckpointWriter;
+import java.util.Arrays;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Column-oriented table of per-process counters. Every process gets a
+ * dense slot in creation order, and each counter is stored in a primitive
+ * column made of fixed-size chunks, so growing the table never copies
+ * existing rows and statistics are computed with plain array scans.
+ *
+ * @author mnprtpsingh
+ */
+public class ProcessTable {
+    public static final int PID = 0;
+    public static final int ARRIVAL_TIME = 1;
+    public static final int COMPLETION_TIME = 2;
+    public static final int TIMES_IN_CPU = 3;
+    public static final int TIME_SPENT_IN_CPU = 4;
+    public static final int TIMES_IN_IO = 5;
+    public static final int TIME_SPENT_IN_IO = 6;
+    public static final int TIMES_PREEMPTED = 7;
+    public static final int TIMES_WAITED = 8;
+    public static final int MEMORY_ALLOCATED = 9;
+    public static final int NUMBER_OF_BURSTS = 10;
+    public static final int STATE = 11;
+    public static final int RESPONSE_TIME = 12;
+    private static final int COLUMNS = 13;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final ProcessState[] STATES = ProcessState.values();
+
+    private int[][][] columns;
+    private String[][] names;
+    private int chunks;
+    private int size;
+
+    public ProcessTable() {
+        this.columns = new int[COLUMNS][16][];
+        this.names = new String[16][];
+        this.chunks = 0;
+        this.size = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int add(int pid, int arrivalTime, int memoryAllocated, String name, int numberOfBursts) {
+        int slot = this.size;
+        if ((slot & CHUNK_MASK) == 0) this.grow();
+        int chunk = slot >>> CHUNK_BITS;
+        int offset = slot & CHUNK_MASK;
+        this.columns[PID][chunk][offset] = pid;
+        this.columns[ARRIVAL_TIME][chunk][offset] = arrivalTime;
+        this.columns[MEMORY_ALLOCATED][chunk][offset] = memoryAllocated;
+        this.columns[NUMBER_OF_BURSTS][chunk][offset] = numberOfBursts;
+        this.columns[STATE][chunk][offset] = ProcessState.READY.ordinal();
+        this.names[chunk][offset] = name;
+        this.size++;
+        return slot;
+    }
+
+    private void grow() {
+        if (this.chunks == this.names.length) {
+            int length = this.chunks * 2;
+            for (int c = 0; c < COLUMNS; c++) {
+                this.columns[c] = Arrays.copyOf(this.columns[c], length);
+            }
+            this.names = Arrays.copyOf(this.names, length);
+        }
+        for (int c = 0; c < COLUMNS; c++) {
+            this.columns[c][this.chunks] = new int[CHUNK_SIZE];
+        }
+        this.names[this.chunks] = new String[CHUNK_SIZE];
+        this.chunks++;
+    }
+
+    public int get(int column, int slot) {
+        return this.columns[column][slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+    }
+
+    public void set(int column, int slot, int value) {
+        this.columns[column][slot >>> CHUNK_BITS][slot & CHUNK_MASK] = value;
+    }
+
+    public void add(int column, int slot, int delta) {
+        this.columns[column][slot >>> CHUNK_BITS][slot & CHUNK_MASK] += delta;
+    }
+
+    public String getName(int slot) {
+        return this.names[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+    }
+
+    public ProcessState getState(int slot) {
+        return STATES[this.get(STATE, slot)];
+    }
+
+    public void setState(int slot, ProcessState state) {
+        this.set(STATE, slot, state.ordinal());
+    }
+
+    public int count(ProcessState state) {
+        int target = state.ordinal();
+        int count = 0;
+        for (int chunk = 0; chunk < this.chunks; chunk++) {
+            int[] states = this.columns[STATE][chunk];
+            int length = Math.min(CHUNK_SIZE, this.size - (chunk << CHUNK_BITS));
+            for (int i = 0; i < length; i++) {
+                if (states[i] == target) count++;
+            }
+        }
+        return count;
+    }
+
+    public long sum(int column) {
+        long sum = 0;
+        for (int chunk = 0; chunk < this.chunks; chunk++) {
+            int[] values = this.columns[column][chunk];
+            int length = Math.min(CHUNK_SIZE, this.size - (chunk << CHUNK_BITS));
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    public long sum(int column, ProcessState state) {
+        int target = state.ordinal();
+        long sum = 0;
+        for (int chunk = 0; chunk < this.chunks; chunk++) {
+            int[] values = this.columns[column][chunk];
+            int[] states = this.columns[STATE][chunk];
+            int length = Math.min(CHUNK_SIZE, this.size - (chunk << CHUNK_BITS));
+            for (int i = 0; i < length; i++) {
+                if (states[i] == target) sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    public void displayStatistics(FileWriter writer, int slot) throws IOException {
+        String s = System.lineSeparator();
+        writer.write(s + s + "Process ID: " + Integer.toString(this.get(PID, slot)));
+        writer.write(s + "Name: " + this.getName(slot));
+        writer.write(s + "Arrival Time: " + Integer.toString(this.get(ARRIVAL_TIME, slot)));
+        writer.write(s + "Number of Bursts: " + Integer.toString(this.get(NUMBER_OF_BURSTS, slot)));
+
+        writer.write(s + "Number of times in CPU: " + Integer.toString(this.get(TIMES_IN_CPU, slot)));
+        writer.write(s + "Time spent in CPU: " + Integer.toString(this.get(TIME_SPENT_IN_CPU, slot)));
+
+        writer.write(s + "Number of times performed IO: " + Integer.toString(this.get(TIMES_IN_IO, slot)));
+        writer.write(s + "Time spent performing IO: " + Integer.toString(this.get(TIME_SPENT_IN_IO, slot)));
+
+        writer.write(s + "Number of times waiting for memory: " + Integer.toString(this.get(TIMES_WAITED, slot)));
+        writer.write(s + "Number of times preempted: " + Integer.toString(this.get(TIMES_PREEMPTED, slot)));
+
+        writer.write(s + "Completion Time: " + Integer.toString(this.get(COMPLETION_TIME, slot)));
+        writer.write(s + "Final State: " + this.getState(slot).toString());
+    }
+
+    public void save(CheckpointWriter out) throws IOException {
+        out.putInt(this.size);
+        for (int chunk = 0; chunk < this.chunks; chunk++) {
+            int length = Math.min(CHUNK_SIZE, this.size - (chunk << CHUNK_BITS));
+            for (int c = 0; c < COLUMNS; c++) {
+                out.putInts(this.columns[c][chunk], length);
+            }
+            for (int i = 0; i < length; i++) {
+                out.putString(this.names[chunk][i]);
+            }
+        }
+    }
+
+    /**
+     * Replaces every row with the ones saved by save.
+     */
+    public void restore(CheckpointReader in) throws IOException {
+        this.columns = new int[COLUMNS][16][];
+        this.names = new String[16][];
+        this.chunks = 0;
+        this.size = in.getInt();
+        while (this.chunks << CHUNK_BITS < this.size) {
+            int chunk = this.chunks;
+            this.grow();
+            for (int c = 0; c < COLUMNS; c++) {
+                int[] values = in.getInts();
+                System.arraycopy(values, 0, this.columns[c][chunk], 0, values.length);
+            }
+            int length = Math.min(CHUNK_SIZE, this.size - (chunk << CHUNK_BITS));
+            for (int i = 0; i < length; i++) {
+                this.names[chunk][i] = in.getString();
+            }
+        }
+    }
+}
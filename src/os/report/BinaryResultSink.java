@@ -0,0 +1,82 @@
+
+package os.report;
+
+import os.process.ProcessTable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes results as fixed-width big-endian records after a 16 byte header
+ * (magic, version, record size, process count). Process records hold
+ * eleven ints and a 32 byte name; metric records hold a double, a 32 byte
+ * name and a 32 byte text value. Text is UTF-8, zero padded and truncated
+ * to its field.
+ *
+ * @author mnprtpsingh
+ */
+public class BinaryResultSink extends ResultSink {
+    public static final int MAGIC = 0x4F535253;
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 80;
+    public static final int PROCESS_RECORD = 1;
+    public static final int METRIC_RECORD = 2;
+    private static final int TEXT_WIDTH = 32;
+
+    public BinaryResultSink(Path path, boolean background) throws IOException {
+        super(path, background);
+    }
+
+    @Override
+    public void begin(int processes) throws IOException {
+        this.putInt(MAGIC);
+        this.putInt(VERSION);
+        this.putInt(RECORD_SIZE);
+        this.putInt(processes);
+    }
+
+    @Override
+    public void process(ProcessTable table, int slot) throws IOException {
+        this.ensure(RECORD_SIZE);
+        this.putInt(PROCESS_RECORD);
+        this.putInt(table.get(ProcessTable.PID, slot));
+        this.putInt(table.get(ProcessTable.ARRIVAL_TIME, slot));
+        this.putInt(table.get(ProcessTable.NUMBER_OF_BURSTS, slot));
+        this.putInt(table.get(ProcessTable.TIMES_IN_CPU, slot));
+        this.putInt(table.get(ProcessTable.TIME_SPENT_IN_CPU, slot));
+        this.putInt(table.get(ProcessTable.TIMES_IN_IO, slot));
+        this.putInt(table.get(ProcessTable.TIME_SPENT_IN_IO, slot));
+        this.putInt(table.get(ProcessTable.TIMES_WAITED, slot));
+        this.putInt(table.get(ProcessTable.TIMES_PREEMPTED, slot));
+        this.putInt(table.get(ProcessTable.COMPLETION_TIME, slot));
+        this.putInt(table.get(ProcessTable.STATE, slot));
+        this.putFixed(table.getName(slot), TEXT_WIDTH);
+    }
+
+    @Override
+    public void section() {
+    }
+
+    private void metric(String name, double value, String text) throws IOException {
+        this.ensure(RECORD_SIZE);
+        this.putInt(METRIC_RECORD);
+        this.putInt(0);
+        this.putDouble(value);
+        this.putFixed(name, TEXT_WIDTH);
+        this.putFixed(text, TEXT_WIDTH);
+    }
+
+    @Override
+    public void metric(String name, long value) throws IOException {
+        this.metric(name, value, "");
+    }
+
+    @Override
+    public void metric(String name, double value) throws IOException {
+        this.metric(name, value, "");
+    }
+
+    @Override
+    public void metric(String name, String value) throws IOException {
+        this.metric(name, Double.NaN, value);
+    }
+}
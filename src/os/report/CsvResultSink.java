@@ -0,0 +1,93 @@
+
+package os.report;
+
+import os.process.ProcessTable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes one comma-separated row per process under a header row. Summary
+ * metrics follow as lines starting with #.
+ *
+ * @author mnprtpsingh
+ */
+public class CsvResultSink extends ResultSink {
+    private static final String HEADER = "pid,name,arrival_time,bursts,times_in_cpu,time_in_cpu,"
+            + "times_in_io,time_in_io,times_waiting_for_memory,times_preempted,completion_time,state";
+
+    public CsvResultSink(Path path, boolean background) throws IOException {
+        super(path, background);
+    }
+
+    private void column(int value) throws IOException {
+        this.putByte(',');
+        this.putDecimal(value);
+    }
+
+    private void name(String name) throws IOException {
+        if (name.indexOf(',') < 0 && name.indexOf('"') < 0) {
+            this.putString(name);
+            return;
+        }
+        this.putByte('"');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '"') this.putByte('"');
+            if (c < 0x80) this.putByte(c);
+            else this.putString(String.valueOf(c));
+        }
+        this.putByte('"');
+    }
+
+    @Override
+    public void begin(int processes) throws IOException {
+        this.putString(HEADER);
+        this.putByte('\n');
+    }
+
+    @Override
+    public void process(ProcessTable table, int slot) throws IOException {
+        this.putDecimal(table.get(ProcessTable.PID, slot));
+        this.putByte(',');
+        this.name(table.getName(slot));
+        this.column(table.get(ProcessTable.ARRIVAL_TIME, slot));
+        this.column(table.get(ProcessTable.NUMBER_OF_BURSTS, slot));
+        this.column(table.get(ProcessTable.TIMES_IN_CPU, slot));
+        this.column(table.get(ProcessTable.TIME_SPENT_IN_CPU, slot));
+        this.column(table.get(ProcessTable.TIMES_IN_IO, slot));
+        this.column(table.get(ProcessTable.TIME_SPENT_IN_IO, slot));
+        this.column(table.get(ProcessTable.TIMES_WAITED, slot));
+        this.column(table.get(ProcessTable.TIMES_PREEMPTED, slot));
+        this.column(table.get(ProcessTable.COMPLETION_TIME, slot));
+        this.putByte(',');
+        this.putString(table.getState(slot).name());
+        this.putByte('\n');
+    }
+
+    @Override
+    public void section() {
+    }
+
+    @Override
+    public void metric(String name, long value) throws IOException {
+        this.putString("# ");
+        this.name(name);
+        this.putByte(',');
+        this.putDecimal(value);
+        this.putByte('\n');
+    }
+
+    @Override
+    public void metric(String name, double value) throws IOException {
+        this.metric(name, Double.toString(value));
+    }
+
+    @Override
+    public void metric(String name, String value) throws IOException {
+        this.putString("# ");
+        this.name(name);
+        this.putByte(',');
+        this.name(value);
+        this.putByte('\n');
+    }
+}
@@ -0,0 +1,208 @@
+
+package os.report;
+
+import os.process.ProcessTable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Destination for end-of-run results. Values are encoded straight into a
+ * direct buffer that is written to a file channel when full, either on the
+ * calling thread or, in background mode, on a dedicated writer thread
+ * while the caller keeps encoding into a spare buffer.
+ *
+ * @author mnprtpsingh
+ */
+public abstract class ResultSink implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BUFFERS = 3;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final byte[] digits;
+    private ByteBuffer buffer;
+    private BlockingQueue<ByteBuffer> filled;
+    private BlockingQueue<ByteBuffer> free;
+    private Thread writer;
+    private volatile IOException failure;
+
+    protected ResultSink(Path path, boolean background) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.digits = new byte[20];
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        if (background) {
+            this.filled = new ArrayBlockingQueue<>(BUFFERS + 1);
+            this.free = new ArrayBlockingQueue<>(BUFFERS);
+            for (int i = 1; i < BUFFERS; i++) {
+                this.free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+            }
+            this.writer = new Thread(this::drain, "result-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+
+    public static ResultSink create(String format, Path path, boolean background) throws IOException {
+        switch (format) {
+            case "text":
+                return new TextResultSink(path, background);
+            case "csv":
+                return new CsvResultSink(path, background);
+            case "binary":
+                return new BinaryResultSink(path, background);
+            default:
+                throw new IllegalArgumentException("Unknown output format: " + format);
+        }
+    }
+
+    public abstract void begin(int processes) throws IOException;
+
+    public abstract void process(ProcessTable table, int slot) throws IOException;
+
+    public abstract void section() throws IOException;
+
+    public abstract void metric(String name, long value) throws IOException;
+
+    public abstract void metric(String name, double value) throws IOException;
+
+    public abstract void metric(String name, String value) throws IOException;
+
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer full = this.filled.take();
+                if (full == END) return;
+                try {
+                    while (full.hasRemaining()) this.channel.write(full);
+                } catch (IOException e) {
+                    this.failure = e;
+                }
+                full.clear();
+                this.free.put(full);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void check() throws IOException {
+        if (this.failure != null) throw this.failure;
+    }
+
+    protected void flush() throws IOException {
+        this.buffer.flip();
+        if (this.writer == null) {
+            while (this.buffer.hasRemaining()) this.channel.write(this.buffer);
+            this.buffer.clear();
+            return;
+        }
+        this.check();
+        try {
+            this.filled.put(this.buffer);
+            this.buffer = this.free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing results", e);
+        }
+    }
+
+    protected void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) this.flush();
+    }
+
+    protected void putByte(int b) throws IOException {
+        if (!this.buffer.hasRemaining()) this.flush();
+        this.buffer.put((byte) b);
+    }
+
+    protected void putBytes(byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            this.putByte(b);
+        }
+    }
+
+    protected void putString(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                this.putBytes(s.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            this.putByte(c);
+        }
+    }
+
+    protected void putDecimal(long value) throws IOException {
+        this.ensure(this.digits.length);
+        if (value < 0) {
+            this.buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                this.putString("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int n = 0;
+        do {
+            this.digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) {
+            this.buffer.put(this.digits[--n]);
+        }
+    }
+
+    protected void putInt(int value) throws IOException {
+        this.ensure(4);
+        this.buffer.putInt(value);
+    }
+
+    protected void putDouble(double value) throws IOException {
+        this.ensure(8);
+        this.buffer.putDouble(value);
+    }
+
+    protected void putFixed(String s, int width) throws IOException {
+        this.ensure(width);
+        int start = this.buffer.position();
+        for (int i = 0; i < s.length() && this.buffer.position() - start < width; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = s.substring(i).getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(bytes.length, width - (this.buffer.position() - start));
+                this.buffer.put(bytes, 0, length);
+                break;
+            }
+            this.buffer.put((byte) c);
+        }
+        while (this.buffer.position() - start < width) {
+            this.buffer.put((byte) 0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.buffer.position() > 0) this.flush();
+            if (this.writer != null) {
+                try {
+                    this.filled.put(END);
+                    this.writer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                this.check();
+            }
+        } finally {
+            this.channel.close();
+        }
+    }
+}
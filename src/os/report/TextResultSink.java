@@ -0,0 +1,84 @@
+
+package os.report;
+
+import os.process.ProcessTable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Writes results in the human-readable layout of output.txt.
+ *
+ * @author mnprtpsingh
+ */
+public class TextResultSink extends ResultSink {
+    private final byte[] newline;
+
+    public TextResultSink(Path path, boolean background) throws IOException {
+        super(path, background);
+        this.newline = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void field(String label, int value) throws IOException {
+        this.putBytes(this.newline);
+        this.putString(label);
+        this.putDecimal(value);
+    }
+
+    @Override
+    public void begin(int processes) throws IOException {
+        this.putString("Number of Process: ");
+        this.putDecimal(processes);
+    }
+
+    @Override
+    public void process(ProcessTable table, int slot) throws IOException {
+        this.putBytes(this.newline);
+        this.field("Process ID: ", table.get(ProcessTable.PID, slot));
+        this.putBytes(this.newline);
+        this.putString("Name: ");
+        this.putString(table.getName(slot));
+        this.field("Arrival Time: ", table.get(ProcessTable.ARRIVAL_TIME, slot));
+        this.field("Number of Bursts: ", table.get(ProcessTable.NUMBER_OF_BURSTS, slot));
+
+        this.field("Number of times in CPU: ", table.get(ProcessTable.TIMES_IN_CPU, slot));
+        this.field("Time spent in CPU: ", table.get(ProcessTable.TIME_SPENT_IN_CPU, slot));
+
+        this.field("Number of times performed IO: ", table.get(ProcessTable.TIMES_IN_IO, slot));
+        this.field("Time spent performing IO: ", table.get(ProcessTable.TIME_SPENT_IN_IO, slot));
+
+        this.field("Number of times waiting for memory: ", table.get(ProcessTable.TIMES_WAITED, slot));
+        this.field("Number of times preempted: ", table.get(ProcessTable.TIMES_PREEMPTED, slot));
+
+        this.field("Completion Time: ", table.get(ProcessTable.COMPLETION_TIME, slot));
+        this.putBytes(this.newline);
+        this.putString("Final State: ");
+        this.putString(table.getState(slot).name());
+    }
+
+    @Override
+    public void section() throws IOException {
+        this.putBytes(this.newline);
+    }
+
+    @Override
+    public void metric(String name, long value) throws IOException {
+        this.putBytes(this.newline);
+        this.putString(name);
+        this.putString(": ");
+        this.putDecimal(value);
+    }
+
+    @Override
+    public void metric(String name, double value) throws IOException {
+        this.metric(name, Double.toString(value));
+    }
+
+    @Override
+    public void metric(String name, String value) throws IOException {
+        this.putBytes(this.newline);
+        this.putString(name);
+        this.putString(": ");
+        this.putString(value);
+    }
+}
@@ -0,0 +1,251 @@
+
+package os.timeline;
+
+import os.ComputerSystem;
+import os.journal.EventJournal;
+import os.process.Process;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Streams the timeline of a run as Chrome trace-event JSON, which Perfetto
+ * and chrome://tracing open directly; one tick is shown as one
+ * microsecond. Every process gets a track of run, ready, IO, IO wait,
+ * memory wait and swapped slices, every core and device a track of the
+ * processes it served, and counter tracks follow memory use and queue
+ * depths. A slice is written as soon as it ends and counters only when
+ * they change, so the writer keeps no more than the open slice of each
+ * process and a fixed output buffer.
+ *
+ * @author mnprtpsingh
+ */
+public class TimelineWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROCESSES = 1;
+    private static final int CORES = 2;
+    private static final int DEVICES = 3;
+    private static final int COUNTERS = 4;
+
+    private static final byte NONE = 0;
+    private static final byte READY = 1;
+    private static final byte RUN = 2;
+    private static final byte IO_WAIT = 3;
+    private static final byte IO = 4;
+    private static final byte MEMORY_WAIT = 5;
+    private static final byte SWAPPED = 6;
+    private static final String[] NAMES = { "", "ready", "run", "io wait", "io", "memory wait", "swapped" };
+
+    private final ComputerSystem system;
+    private final Writer writer;
+    private byte[] states;
+    private int[] pids;
+    private int[] since;
+    private int[] places;
+    private final int[] counters;
+    private long events;
+    private int clock;
+
+    public TimelineWriter(Path path, ComputerSystem system) throws IOException {
+        this.system = system;
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.states = new byte[1024];
+        this.pids = new int[1024];
+        this.since = new int[1024];
+        this.places = new int[1024];
+        this.counters = new int[4];
+        Arrays.fill(this.counters, -1);
+        this.events = 0;
+        this.clock = 0;
+
+        this.writer.write("{\"traceEvents\":[");
+        this.name("process_name", PROCESSES, 0, "Processes");
+        this.name("process_name", CORES, 0, "CPUs");
+        this.name("process_name", DEVICES, 0, "IO Devices");
+        this.name("process_name", COUNTERS, 0, "System");
+        for (int i = 0; i < system.getNumberOfCores(); i++) {
+            this.name("thread_name", CORES, i, "Core " + i);
+        }
+        for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+            this.name("thread_name", DEVICES, i, "Device " + i + " (" + system.getIODevice(i).name + ")");
+        }
+    }
+
+    /**
+     * @return the number of trace events written so far
+     */
+    public long getEvents() {
+        return this.events;
+    }
+
+    private void begin(String name, String phase, int pid, int tid, int ts) throws IOException {
+        if (this.events++ > 0) this.writer.write(',');
+        this.writer.write("\n{\"name\":\"");
+        this.writer.write(name);
+        this.writer.write("\",\"ph\":\"");
+        this.writer.write(phase);
+        this.writer.write("\",\"pid\":");
+        this.writer.write(Integer.toString(pid));
+        this.writer.write(",\"tid\":");
+        this.writer.write(Integer.toString(tid));
+        this.writer.write(",\"ts\":");
+        this.writer.write(Integer.toString(ts));
+    }
+
+    private void name(String type, int pid, int tid, String name) throws IOException {
+        this.begin(type, "M", pid, tid, 0);
+        this.writer.write(",\"args\":{\"name\":\"");
+        this.writer.write(name.replace("\\", "\\\\").replace("\"", "\\\""));
+        this.writer.write("\"}}");
+    }
+
+    private void slice(String name, int pid, int tid, int start, int end) throws IOException {
+        this.begin(name, "X", pid, tid, start);
+        this.writer.write(",\"dur\":");
+        this.writer.write(Integer.toString(end - start));
+        this.writer.write('}');
+    }
+
+    private void grow(int slot) {
+        int length = Math.max(slot + 1, this.states.length * 2);
+        this.states = Arrays.copyOf(this.states, length);
+        this.pids = Arrays.copyOf(this.pids, length);
+        this.since = Arrays.copyOf(this.since, length);
+        this.places = Arrays.copyOf(this.places, length);
+    }
+
+    /**
+     * Ends the open slice of a process and starts the next one.
+     */
+    private void enter(int clock, int slot, int pid, byte state, int place) throws IOException {
+        byte previous = this.states[slot];
+        int start = this.since[slot];
+        if (previous != NONE && clock > start) {
+            this.slice(NAMES[previous], PROCESSES, pid, start, clock);
+            if (previous == RUN) this.slice("Process " + pid, CORES, this.places[slot], start, clock);
+            else if (previous == IO) this.slice("Process " + pid, DEVICES, this.places[slot], start, clock);
+        }
+        this.states[slot] = state;
+        this.pids[slot] = pid;
+        this.since[slot] = clock;
+        this.places[slot] = place;
+    }
+
+    /**
+     * Follows a process state transition, with the same events and
+     * arguments as the event journal.
+     */
+    public void record(int clock, int slot, int pid, int event, int argument) {
+        if (slot >= this.states.length) this.grow(slot);
+        this.clock = clock;
+        try {
+            switch (event) {
+                case EventJournal.ADMIT:
+                    this.name("thread_name", PROCESSES, pid, "Process " + pid);
+                    this.enter(clock, slot, pid, READY, 0);
+                    break;
+                case EventJournal.DISPATCH:
+                    this.enter(clock, slot, pid, RUN, argument);
+                    break;
+                case EventJournal.PREEMPT:
+                    this.enter(clock, slot, pid, argument == 0 ? READY : IO_WAIT, 0);
+                    break;
+                case EventJournal.IO_WAIT:
+                case EventJournal.PAGE_FAULT:
+                    this.enter(clock, slot, pid, IO_WAIT, 0);
+                    break;
+                case EventJournal.MEMORY_WAIT:
+                case EventJournal.SWAP_IN:
+                    this.enter(clock, slot, pid, MEMORY_WAIT, 0);
+                    break;
+                case EventJournal.READY:
+                    this.enter(clock, slot, pid, READY, 0);
+                    break;
+                case EventJournal.SWAP_OUT:
+                    this.enter(clock, slot, pid, SWAPPED, 0);
+                    break;
+                case EventJournal.KILL:
+                case EventJournal.TERMINATE:
+                    this.enter(clock, slot, pid, NONE, 0);
+                    break;
+                default:
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Picks up the processes that devices started serving and the counters
+     * that changed; called once the system has settled at the clock.
+     */
+    public void sample() {
+        ComputerSystem system = this.system;
+        int clock = system.getClock();
+        this.clock = clock;
+        try {
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                Process proc = system.getIODevice(i).getBusyProcess();
+                if (proc != null && this.states[proc.getSlot()] == IO_WAIT) this.enter(clock, proc.getSlot(), proc.pid, IO, i);
+            }
+
+            int ready = 0;
+            for (int i = 0; i < system.getNumberOfCores(); i++) {
+                ready += system.getShortTermScheduler().getReadyQueue(i).size();
+            }
+            int ioWait = 0;
+            for (int i = 0; i < system.getNumberOfIODevices(); i++) {
+                ioWait += system.getShortTermScheduler().getIOWaitQueue(i).size();
+            }
+            int memoryWait = system.getShortTermScheduler().getMemoryWaitQueue().size();
+            int memoryUsed = system.getMemoryUsed();
+            if (memoryUsed != this.counters[0]) {
+                this.counters[0] = memoryUsed;
+                this.begin("Memory Used", "C", COUNTERS, 0, clock);
+                this.writer.write(",\"args\":{\"used\":");
+                this.writer.write(Integer.toString(memoryUsed));
+                this.writer.write("}}");
+            }
+            if (ready != this.counters[1] || ioWait != this.counters[2] || memoryWait != this.counters[3]) {
+                this.counters[1] = ready;
+                this.counters[2] = ioWait;
+                this.counters[3] = memoryWait;
+                this.begin("Queue Depths", "C", COUNTERS, 0, clock);
+                this.writer.write(",\"args\":{\"ready\":");
+                this.writer.write(Integer.toString(ready));
+                this.writer.write(",\"io_wait\":");
+                this.writer.write(Integer.toString(ioWait));
+                this.writer.write(",\"memory_wait\":");
+                this.writer.write(Integer.toString(memoryWait));
+                this.writer.write("}}");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ends the slices still open at the last clock seen and completes the
+     * JSON document.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.sample();
+            for (int slot = 0; slot < this.states.length; slot++) {
+                if (this.states[slot] != NONE) this.enter(this.clock, slot, this.pids[slot], NONE, 0);
+            }
+            this.writer.write("\n]}\n");
+        } finally {
+            this.writer.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+
+package os.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * A distribution of non-negative values, written on the command line as
+ * its name followed by its parameters, for example exponential:50,
+ * pareto:1.5:10, lognormal:3.5:0.8, uniform:10:100 or
+ * empirical:10=5,20=3,100=1.
+ *
+ * @author mnprtpsingh
+ */
+public abstract class Distribution {
+
+    public static Distribution create(String spec) {
+        int colon = spec.indexOf(':');
+        String name = colon < 0 ? spec : spec.substring(0, colon);
+        String[] params = colon < 0 ? new String[0] : spec.substring(colon + 1).split(":");
+        try {
+            switch (name) {
+                case "exponential":
+                    checkParameters(spec, params, 1);
+                    return new ExponentialDistribution(Double.parseDouble(params[0]));
+                case "pareto":
+                    checkParameters(spec, params, 2);
+                    return new ParetoDistribution(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+                case "lognormal":
+                    checkParameters(spec, params, 2);
+                    return new LognormalDistribution(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+                case "uniform":
+                    checkParameters(spec, params, 2);
+                    return new UniformDistribution(Integer.parseInt(params[0]), Integer.parseInt(params[1]));
+                case "empirical":
+                    checkParameters(spec, params, 1);
+                    return EmpiricalDistribution.parse(params[0]);
+                default:
+                    throw new IllegalArgumentException("Unknown distribution: " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid distribution: " + spec, e);
+        }
+    }
+
+    private static void checkParameters(String spec, String[] params, int count) {
+        if (params.length != count) throw new IllegalArgumentException("Invalid distribution: " + spec);
+    }
+
+    public abstract double sample(SplittableRandom random);
+
+    public abstract double getMean();
+}
@@ -0,0 +1,71 @@
+
+package os.workload;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Values drawn from a measured histogram, given as bucket upper bounds in
+ * increasing order with their counts. A bucket is picked in proportion to
+ * its count and the value is uniform between the previous bound and its
+ * own; the first bucket starts at 0.
+ *
+ * @author mnprtpsingh
+ */
+public class EmpiricalDistribution extends Distribution {
+    private final double[] bounds;
+    private final double[] cumulative;
+
+    public EmpiricalDistribution(double[] bounds, double[] counts) {
+        if (bounds.length == 0 || bounds.length != counts.length) throw new IllegalArgumentException("Empty or uneven histogram");
+        this.bounds = bounds.clone();
+        this.cumulative = new double[counts.length];
+        double total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (bounds[i] < 0 || (i > 0 && bounds[i] <= bounds[i - 1])) throw new IllegalArgumentException("Bucket bounds must increase");
+            if (counts[i] < 0) throw new IllegalArgumentException("Bucket counts must not be negative");
+            total += counts[i];
+            this.cumulative[i] = total;
+        }
+        if (!(total > 0)) throw new IllegalArgumentException("Histogram is empty");
+    }
+
+    /**
+     * @param histogram comma separated bound=count pairs
+     */
+    public static EmpiricalDistribution parse(String histogram) {
+        String[] buckets = histogram.split(",");
+        double[] bounds = new double[buckets.length];
+        double[] counts = new double[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            String[] pair = buckets[i].split("=");
+            if (pair.length != 2) throw new IllegalArgumentException("Invalid histogram bucket: " + buckets[i]);
+            bounds[i] = Double.parseDouble(pair[0]);
+            counts[i] = Double.parseDouble(pair[1]);
+        }
+        return new EmpiricalDistribution(bounds, counts);
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        double total = this.cumulative[this.cumulative.length - 1];
+        double u = random.nextDouble() * total;
+        int i = Arrays.binarySearch(this.cumulative, u);
+        i = i < 0 ? -i - 1 : i + 1;
+        i = Math.min(i, this.bounds.length - 1);
+        double low = i == 0 ? 0 : this.bounds[i - 1];
+        return low + random.nextDouble() * (this.bounds[i] - low);
+    }
+
+    @Override
+    public double getMean() {
+        double mean = 0;
+        double previous = 0;
+        for (int i = 0; i < this.bounds.length; i++) {
+            double low = i == 0 ? 0 : this.bounds[i - 1];
+            mean += (this.cumulative[i] - previous) * (low + this.bounds[i]) / 2;
+            previous = this.cumulative[i];
+        }
+        return mean / previous;
+    }
+}
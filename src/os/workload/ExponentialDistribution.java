@@ -0,0 +1,28 @@
+
+package os.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Memoryless values, such as the gaps between Poisson arrivals.
+ *
+ * @author mnprtpsingh
+ */
+public class ExponentialDistribution extends Distribution {
+    private final double mean;
+
+    public ExponentialDistribution(double mean) {
+        if (!(mean > 0)) throw new IllegalArgumentException("Mean must be positive: " + mean);
+        this.mean = mean;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return -this.mean * Math.log(1 - random.nextDouble());
+    }
+
+    @Override
+    public double getMean() {
+        return this.mean;
+    }
+}
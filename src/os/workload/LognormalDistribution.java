@@ -0,0 +1,46 @@
+
+package os.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Values whose logarithm is normal with mean mu and deviation sigma.
+ *
+ * @author mnprtpsingh
+ */
+public class LognormalDistribution extends Distribution {
+    private final double mu;
+    private final double sigma;
+
+    public LognormalDistribution(double mu, double sigma) {
+        if (!(sigma >= 0)) throw new IllegalArgumentException("Sigma must not be negative: " + sigma);
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+    /**
+     * Marsaglia's polar method; the second value is dropped so that a
+     * sample always takes the same stream positions of a job's random.
+     */
+    private static double nextGaussian(SplittableRandom random) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * random.nextDouble() - 1;
+            v = 2 * random.nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return Math.exp(this.mu + this.sigma * nextGaussian(random));
+    }
+
+    @Override
+    public double getMean() {
+        return Math.exp(this.mu + this.sigma * this.sigma / 2);
+    }
+}
@@ -0,0 +1,31 @@
+
+package os.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Heavy-tailed values of at least scale; the smaller the shape, the
+ * heavier the tail, and the mean is infinite for a shape of 1 or less.
+ *
+ * @author mnprtpsingh
+ */
+public class ParetoDistribution extends Distribution {
+    private final double shape;
+    private final double scale;
+
+    public ParetoDistribution(double shape, double scale) {
+        if (!(shape > 0) || !(scale > 0)) throw new IllegalArgumentException("Shape and scale must be positive");
+        this.shape = shape;
+        this.scale = scale;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return this.scale / Math.pow(1 - random.nextDouble(), 1 / this.shape);
+    }
+
+    @Override
+    public double getMean() {
+        return this.shape <= 1 ? Double.POSITIVE_INFINITY : this.shape * this.scale / (this.shape - 1);
+    }
+}
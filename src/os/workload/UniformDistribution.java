@@ -0,0 +1,30 @@
+
+package os.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Whole numbers from min to max inclusive.
+ *
+ * @author mnprtpsingh
+ */
+public class UniformDistribution extends Distribution {
+    private final int min;
+    private final int max;
+
+    public UniformDistribution(int min, int max) {
+        if (min < 0 || max < min) throw new IllegalArgumentException("Invalid range: " + min + " to " + max);
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return random.nextInt(this.min, this.max + 1);
+    }
+
+    @Override
+    public double getMean() {
+        return (this.min + this.max) / 2.0;
+    }
+}
@@ -0,0 +1,198 @@
+
+package os.workload;
+
+import os.job.Burst;
+import os.job.BurstType;
+import os.job.CPU_Burst;
+import os.job.IO_Burst;
+import os.job.Job;
+import os.job.JobSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Generates jobs lazily from configurable distributions. Every job draws
+ * from its own stream, split off a seeded root stream in job order, so the
+ * jobs are the same however the work is spread: batches are generated in
+ * parallel, one batch ahead of the jobs handed out. With an interarrival
+ * distribution, each job draws its gap to the previous job first and
+ * arrival times are the running sum of the gaps, rounded to ticks;
+ * otherwise every job arrives at tick 0.
+ *
+ * A job alternates CPU and IO bursts, starting with CPU. Its first CPU
+ * burst asks for its initial memory, and every later CPU burst either
+ * releases part of what the job holds or grows it, at even odds.
+ * The defaults are the ranges createJobs has always used.
+ *
+ * @author mnprtpsingh
+ */
+public class WorkloadGenerator implements JobSource {
+    private static final int BATCH_SIZE = 4096;
+
+    private final int numberOfJobs;
+    private final SplittableRandom root;
+    private Distribution interarrival;
+    private Distribution bursts;
+    private Distribution cpuBurst;
+    private Distribution ioBurst;
+    private Distribution memory;
+    private Distribution growth;
+    private int deviceClasses;
+    private int memoryLimit;
+    private CompletableFuture<Batch> pending;
+    private Job[] batch;
+    private int position;
+    private int generated;
+
+    private static final class Batch {
+        final Job[] jobs;
+        final long lastArrival;
+
+        Batch(Job[] jobs, long lastArrival) {
+            this.jobs = jobs;
+            this.lastArrival = lastArrival;
+        }
+    }
+
+    public WorkloadGenerator(long seed, int numberOfJobs) {
+        if (numberOfJobs < 0) throw new IllegalArgumentException("Number of jobs must not be negative: " + numberOfJobs);
+        this.numberOfJobs = numberOfJobs;
+        this.root = new SplittableRandom(seed);
+        this.interarrival = null;
+        this.bursts = new UniformDistribution(1, 10);
+        this.cpuBurst = new UniformDistribution(10, 100);
+        this.ioBurst = new UniformDistribution(20, 60);
+        this.memory = new UniformDistribution(5, 200);
+        this.growth = new UniformDistribution(0, 40);
+        this.deviceClasses = 1;
+        this.memoryLimit = Integer.MAX_VALUE;
+        this.pending = null;
+        this.batch = new Job[0];
+        this.position = 0;
+        this.generated = 0;
+    }
+
+    /**
+     * @param interarrival the ticks between consecutive arrivals, for
+     * example exponential for Poisson arrivals
+     */
+    public void setInterarrival(Distribution interarrival) {
+        this.interarrival = interarrival;
+    }
+
+    /**
+     * @param bursts the number of bursts of a job
+     */
+    public void setBursts(Distribution bursts) {
+        this.bursts = bursts;
+    }
+
+    public void setCPUBurst(Distribution cpuBurst) {
+        this.cpuBurst = cpuBurst;
+    }
+
+    public void setIOBurst(Distribution ioBurst) {
+        this.ioBurst = ioBurst;
+    }
+
+    /**
+     * @param memory the memory a job asks for when it is admitted
+     */
+    public void setMemory(Distribution memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * @param growth the memory a CPU burst asks for when the job grows
+     */
+    public void setGrowth(Distribution growth) {
+        this.growth = growth;
+    }
+
+    public void setDeviceClasses(int deviceClasses) {
+        this.deviceClasses = deviceClasses;
+    }
+
+    /**
+     * Caps the memory a job ever holds, so that heavy tails do not make
+     * jobs too large to admit.
+     */
+    public void setMemoryLimit(int memoryLimit) {
+        if (memoryLimit <= 0) throw new IllegalArgumentException("Memory limit must be positive: " + memoryLimit);
+        this.memoryLimit = memoryLimit;
+    }
+
+    private static int round(double value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, Math.round(value)));
+    }
+
+    private Job createJob(int index, long arrivalTime, SplittableRandom random) {
+        int numberOfBurst = round(this.bursts.sample(random), 1, Integer.MAX_VALUE);
+        ArrayList<Burst> list = new ArrayList<>(numberOfBurst);
+        int memAlloc = round(this.memory.sample(random), 1, this.memoryLimit);
+        list.add(new CPU_Burst(round(this.cpuBurst.sample(random), 1, Integer.MAX_VALUE), BurstType.CPU_BURST, memAlloc));
+        for (int j = 1; j < numberOfBurst; j++) {
+            if (j % 2 == 0) {
+                int memReq;
+                if (random.nextBoolean()) {
+                    memReq = -random.nextInt(memAlloc);
+                } else {
+                    memReq = round(this.growth.sample(random), 0, this.memoryLimit - memAlloc);
+                }
+                memAlloc += memReq;
+                list.add(new CPU_Burst(round(this.cpuBurst.sample(random), 1, Integer.MAX_VALUE), BurstType.CPU_BURST, memReq));
+            } else {
+                int time = round(this.ioBurst.sample(random), 1, Integer.MAX_VALUE);
+                int device = this.deviceClasses > 1 ? random.nextInt(this.deviceClasses) : 0;
+                list.add(new IO_Burst(time, BurstType.IO_BURST, device));
+            }
+        }
+        return new Job("Program " + Integer.toString(index), (int) Math.min(arrivalTime, Integer.MAX_VALUE), list);
+    }
+
+    private Batch createBatch(int first, SplittableRandom[] streams, long lastArrival) {
+        long[] arrivals = new long[streams.length];
+        if (this.interarrival != null) {
+            Arrays.parallelSetAll(arrivals, i -> Math.round(this.interarrival.sample(streams[i])));
+            arrivals[0] += lastArrival;
+            Arrays.parallelPrefix(arrivals, Long::sum);
+        }
+        Job[] jobs = new Job[streams.length];
+        Arrays.parallelSetAll(jobs, i -> this.createJob(first + i, arrivals[i], streams[i]));
+        return new Batch(jobs, arrivals[arrivals.length - 1]);
+    }
+
+    /**
+     * Splits off the streams of the next batch and starts generating it
+     * once the previous batch has its arrival times.
+     */
+    private CompletableFuture<Batch> startBatch(CompletableFuture<Batch> previous) {
+        int first = this.generated;
+        int size = Math.min(BATCH_SIZE, this.numberOfJobs - first);
+        if (size == 0) return null;
+        SplittableRandom[] streams = new SplittableRandom[size];
+        for (int i = 0; i < size; i++) {
+            streams[i] = this.root.split();
+        }
+        this.generated += size;
+        if (previous == null) return CompletableFuture.supplyAsync(() -> this.createBatch(first, streams, 0));
+        return previous.thenApplyAsync(batch -> this.createBatch(first, streams, batch.lastArrival));
+    }
+
+    @Override
+    public Job next() {
+        if (this.position == this.batch.length) {
+            if (this.pending == null) this.pending = this.startBatch(null);
+            if (this.pending == null) return null;
+            CompletableFuture<Batch> current = this.pending;
+            this.batch = current.join().jobs;
+            this.position = 0;
+            this.pending = this.startBatch(current);
+        }
+        Job job = this.batch[this.position];
+        this.batch[this.position++] = null;
+        return job;
+    }
+}